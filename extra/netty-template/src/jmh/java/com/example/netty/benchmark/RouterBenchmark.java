@@ -0,0 +1,74 @@
+package com.example.netty.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.netty.handler.AppHandler;
+import com.example.netty.handler.OAuthHandler;
+import com.example.netty.handler.StaticFileHandler;
+import com.example.netty.router.AppRoutes;
+import com.example.netty.router.RouteMatch;
+import com.example.netty.router.Router;
+
+import io.netty.handler.codec.http.HttpMethod;
+
+/**
+ * Finding the handler of a request: the former switch/startsWith chain of HttpServerHandler, which built a new
+ * handler (and with it an ObjectMapper) per request, against the compiled {@link Router}. Only dispatch is measured,
+ * the handlers are not invoked. Run with -prof gc to see the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RouterBenchmark {
+
+    @Param({ "/login", "/oauth/callback?code=abc&state=xyz", "/hello", "/static/css/style.css", "/missing" })
+    public String uri;
+
+    private Router router;
+
+    @Setup
+    public void setUp() {
+        router = AppRoutes.router();
+    }
+
+    @Benchmark
+    public Object legacyDispatch(Blackhole blackhole) {
+        return legacyGetHandler(uri, blackhole);
+    }
+
+    @Benchmark
+    public RouteMatch routerDispatch() {
+        return router.match(HttpMethod.GET, uri);
+    }
+
+    // HttpServerHandler.handleGetRequest before the router, minus the handler call
+    private static Object legacyGetHandler(String uri, Blackhole blackhole) {
+        switch (uri) {
+            case "/login":
+            case "/profile":
+            case "/logout":
+                return new OAuthHandler();
+            default:
+                if (uri.startsWith("/oauth/callback")) {
+                    return new OAuthHandler();
+                } else if (uri.startsWith("/hello")) {
+                    return new AppHandler();
+                } else if (uri.startsWith("/static/")) {
+                    blackhole.consume(uri.substring("/static".length()));
+                    return new StaticFileHandler();
+                } else {
+                    return null;
+                }
+        }
+    }
+}
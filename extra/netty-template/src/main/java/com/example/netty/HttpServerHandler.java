@@ -1,95 +1,267 @@
 package com.example.netty;
 
 import com.example.netty.common.WonderUtils;
-import com.example.netty.handler.AppHandler;
-import com.example.netty.handler.OAuthHandler;
-import com.example.netty.handler.StaticFileHandler;
+import com.example.netty.config.AppConfig;
+import com.example.netty.router.AppRoutes;
+import com.example.netty.router.RouteMatch;
+import com.example.netty.router.Router;
+import com.example.netty.runtime.BlockingExecutor;
+import com.example.netty.staticfile.FileRegionResponse;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.DefaultFileRegion;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.http.*;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedNioFile;
+import io.netty.handler.timeout.IdleStateEvent;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayDeque;
+import java.util.concurrent.RejectedExecutionException;
 
 import static io.netty.handler.codec.http.HttpResponseStatus.*;
 
+/**
+ * Dispatches requests through the shared {@link Router} and keeps HTTP/1.1 connections open between requests.
+ * One instance per connection, every method runs on the connection's event loop.
+ *
+ * Blocking handlers run on the {@link BlockingExecutor}; their response is written back from the event loop.
+ * While one runs, later (pipelined) requests of the connection wait in arrival order and reading pauses,
+ * so responses always leave in request order.
+ */
 public class HttpServerHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
-    
+
+    // Chunk size for files that TLS has to encrypt in user space
+    private static final int FILE_CHUNK_SIZE = 8192;
+
+    private final Router router;
+    // null: blocking handlers run on the event loop too (blocking.offload.enabled=false)
+    private final BlockingExecutor blockingExecutor;
+    private final int maxRequestsPerConnection;
+    private int requestsOnConnection;
+    // Set once a response closes the connection; requests pipelined behind it are dropped
+    private boolean closing;
+    // A blocking handler of this connection is running
+    private boolean busy;
+    // Retained requests that arrived while busy
+    private final ArrayDeque<FullHttpRequest> waiting = new ArrayDeque<>();
+
+    public HttpServerHandler() {
+        this(AppRoutes.router(),
+                AppConfig.getInstance().isBlockingOffloadEnabled() ? BlockingExecutor.getInstance() : null,
+                AppConfig.getInstance().getHttpMaxRequestsPerConnection());
+    }
+
+    public HttpServerHandler(Router router, BlockingExecutor blockingExecutor, int maxRequestsPerConnection) {
+        this.router = router;
+        this.blockingExecutor = blockingExecutor;
+        this.maxRequestsPerConnection = maxRequestsPerConnection;
+    }
+
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) throws Exception {
-        String uri = request.uri();
-        HttpMethod method = request.method();
-        
-        FullHttpResponse response;
-        
-        // Route handling by HTTP method
-        if (method == HttpMethod.GET) {
-            response = handleGetRequest(request, uri);
-        } else if (method == HttpMethod.POST) {
-            response = handlePostRequest(request, uri);
-        } else if (method == HttpMethod.PUT) {
-            response = handlePutRequest(request, uri);
-        } else if (method == HttpMethod.DELETE) {
-            response = handleDeleteRequest(request, uri);
-        } else {
-            response = WonderUtils.createJsonResponse(NOT_FOUND, WonderUtils.createErrorJson("Not Found", "The requested endpoint does not exist"));
-        }
-        
-        // Send response and close connection
-        ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+        if (closing) {
+            return;
+        }
+        if (busy) {
+            waiting.add(request.retain());
+            ctx.channel().config().setAutoRead(false);
+            return;
+        }
+        handle(ctx, request);
     }
-    
-    private FullHttpResponse handleGetRequest(FullHttpRequest request, String uri) {
-        switch (uri) {
-            case "/login": {
-                var oauthHandler = new OAuthHandler();
-                return oauthHandler.handleLoginRequest();
-            }
-            case "/profile": {
-                var oauthHandler = new OAuthHandler();
-                return oauthHandler.handleProfileRequest(request);
-            }
-            case "/logout": {
-                var oauthHandler = new OAuthHandler();
-                return oauthHandler.handleLogoutRequest(request);
-            }
-            default: {
-                if (uri.startsWith("/oauth/callback")) {
-                    var oauthHandler = new OAuthHandler();
-                    return oauthHandler.handleOAuthCallback(uri);
-                } else if (uri.startsWith("/hello")) {
-                    var appHandler = new AppHandler();
-                    return appHandler.handleGetRequest(request);
-                } else if (uri.startsWith("/static/")) {
-                    // Serve static files from resources/static
-                    var staticFileHandler = new StaticFileHandler();
-                    return staticFileHandler.handleStaticFileRequest(uri.substring("/static".length()));
-                } else {
-                    return WonderUtils.createJsonResponse(NOT_FOUND,
-                            WonderUtils.createErrorJson("Not Found", "The requested endpoint does not exist"));
+
+    private void handle(ChannelHandlerContext ctx, FullHttpRequest request) {
+        if (!request.decoderResult().isSuccess()) {
+            closing = true;
+            FullHttpResponse badRequest = WonderUtils.createJsonResponse(BAD_REQUEST,
+                    WonderUtils.createErrorJson("Bad Request", "Malformed HTTP request"));
+            HttpUtil.setKeepAlive(badRequest, false);
+            ctx.writeAndFlush(badRequest).addListener(ChannelFutureListener.CLOSE);
+            return;
+        }
+
+        RouteMatch match = router.match(request.method(), request.uri());
+        if (blockingExecutor != null && match.status() == RouteMatch.Status.FOUND && match.handler().isBlocking()) {
+            offload(ctx, request, match);
+            return;
+        }
+        respond(ctx, request, router.dispatch(request, match));
+    }
+
+    private void offload(ChannelHandlerContext ctx, FullHttpRequest request, RouteMatch match) {
+        busy = true;
+        request.retain();
+        try {
+            blockingExecutor.execute(() -> {
+                FullHttpResponse response;
+                try {
+                    response = router.dispatch(request, match);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    response = WonderUtils.createJsonResponse(INTERNAL_SERVER_ERROR,
+                            WonderUtils.createErrorJson("Internal Server Error", e.getMessage()));
                 }
+                FullHttpResponse result = response;
+                ctx.executor().execute(() -> {
+                    try {
+                        busy = false;
+                        respond(ctx, request, result);
+                    } finally {
+                        request.release();
+                    }
+                    processWaiting(ctx);
+                    ctx.flush();
+                });
+            });
+        } catch (RejectedExecutionException e) {
+            busy = false;
+            request.release();
+            FullHttpResponse unavailable = WonderUtils.createJsonResponse(SERVICE_UNAVAILABLE,
+                    WonderUtils.createErrorJson("Service Unavailable", "Server is busy, try again later"));
+            unavailable.headers().set(HttpHeaderNames.RETRY_AFTER, 1);
+            respond(ctx, request, unavailable);
+        }
+    }
+
+    private void respond(ChannelHandlerContext ctx, FullHttpRequest request, FullHttpResponse response) {
+        if (closing || !ctx.channel().isActive()) {
+            response.release();
+            return;
+        }
+        requestsOnConnection++;
+        boolean keepAlive = HttpUtil.isKeepAlive(request)
+                && (maxRequestsPerConnection <= 0 || requestsOnConnection < maxRequestsPerConnection);
+        // HTTP/1.0 clients need an explicit Connection: keep-alive, HTTP/1.1 ones an explicit close
+        HttpUtil.setKeepAlive(response.headers(), request.protocolVersion(), keepAlive);
+        if (!response.headers().contains(HttpHeaderNames.CONTENT_LENGTH) && response.status() != NOT_MODIFIED) {
+            // Without a length the client can only find the end of the body by the connection closing
+            HttpUtil.setContentLength(response, response.content().readableBytes());
+        }
+
+        // Flushed in channelReadComplete (or after an offloaded response), so pipelined responses leave in one write
+        ChannelFuture future = response instanceof FileRegionResponse
+                ? writeFile(ctx, (FileRegionResponse) response)
+                : ctx.write(response);
+        if (!keepAlive) {
+            closing = true;
+            future.addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    /**
+     * Headers, then the file range: a FileRegion that the kernel copies straight to the socket (sendfile), or
+     * chunks through ChunkedWriteHandler when the SslHandler has to encrypt the bytes.
+     */
+    private ChannelFuture writeFile(ChannelHandlerContext ctx, FileRegionResponse response) {
+        RandomAccessFile file;
+        try {
+            file = new RandomAccessFile(response.file(), "r");
+        } catch (FileNotFoundException e) {
+            // Deleted since the index last checked it
+            return fileUnavailable(ctx, NOT_FOUND, "The file is no longer available");
+        }
+        long length;
+        try {
+            length = file.length();
+        } catch (IOException e) {
+            length = -1;
+        }
+        if (length < response.offset() + response.count()) {
+            // Truncated since the index last checked it: the range is gone, a retry gets the new length
+            closeQuietly(file);
+            return fileUnavailable(ctx, SERVICE_UNAVAILABLE, "The file changed, try again");
+        }
+
+        ctx.write(new DefaultHttpResponse(response.protocolVersion(), response.status(), response.headers()));
+        if (ctx.pipeline().get(SslHandler.class) == null) {
+            // Closes the file once written
+            ctx.write(new DefaultFileRegion(file.getChannel(), response.offset(), response.count()));
+            return ctx.write(LastHttpContent.EMPTY_LAST_CONTENT);
+        }
+        try {
+            // Ends with the LastHttpContent itself, ChunkedWriteHandler closes the file
+            return ctx.write(new HttpChunkedInput(
+                    new ChunkedNioFile(file.getChannel(), response.offset(), response.count(), FILE_CHUNK_SIZE)));
+        } catch (IOException e) {
+            closeQuietly(file);
+            closing = true;
+            return ctx.write(LastHttpContent.EMPTY_LAST_CONTENT).addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    // Answer in place of a file whose headers were computed from the index; ends the connection after it
+    private ChannelFuture fileUnavailable(ChannelHandlerContext ctx, HttpResponseStatus status, String message) {
+        closing = true;
+        FullHttpResponse error = WonderUtils.createJsonResponse(status,
+                WonderUtils.createErrorJson(status.reasonPhrase(), message));
+        if (status == SERVICE_UNAVAILABLE) {
+            error.headers().set(HttpHeaderNames.RETRY_AFTER, 1);
+        }
+        HttpUtil.setKeepAlive(error, false);
+        HttpUtil.setContentLength(error, error.content().readableBytes());
+        return ctx.write(error).addListener(ChannelFutureListener.CLOSE);
+    }
+
+    private static void closeQuietly(RandomAccessFile file) {
+        try {
+            file.close();
+        } catch (IOException e) {
+            // nothing left to do
+        }
+    }
+
+    // Requests that queued up behind a blocking one, until the next blocking one takes over
+    private void processWaiting(ChannelHandlerContext ctx) {
+        FullHttpRequest next;
+        while (!busy && !closing && (next = waiting.poll()) != null) {
+            try {
+                handle(ctx, next);
+            } finally {
+                next.release();
             }
         }
+        if (closing) {
+            releaseWaiting();
+        } else if (!busy) {
+            ctx.channel().config().setAutoRead(true);
+        }
     }
-    
-    private FullHttpResponse handlePostRequest(FullHttpRequest request, String uri) {
-        if (uri.startsWith("/data")) {
-            var appHandler = new AppHandler();
-            return appHandler.handlePostRequest(request);
-        } else {
-            return WonderUtils.createJsonResponse(NOT_FOUND,
-                    WonderUtils.createErrorJson("Not Found", "The requested endpoint does not exist"));
+
+    private void releaseWaiting() {
+        FullHttpRequest request;
+        while ((request = waiting.poll()) != null) {
+            request.release();
         }
     }
-    
-    private FullHttpResponse handlePutRequest(FullHttpRequest request, String uri) {
-        return WonderUtils.createJsonResponse(NOT_FOUND,
-                WonderUtils.createErrorJson("Not Found", "The requested endpoint does not exist"));
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) {
+        ctx.flush();
     }
-    
-    private FullHttpResponse handleDeleteRequest(FullHttpRequest request, String uri) {
-        return WonderUtils.createJsonResponse(NOT_FOUND,
-                WonderUtils.createErrorJson("Not Found", "The requested endpoint does not exist"));
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        releaseWaiting();
+        super.channelInactive(ctx);
     }
-    
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt instanceof IdleStateEvent) {
+            // Keep-alive connection without traffic for http.idle.timeout.seconds
+            if (!busy) {
+                ctx.close();
+            }
+            return;
+        }
+        super.userEventTriggered(ctx, evt);
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
         cause.printStackTrace();
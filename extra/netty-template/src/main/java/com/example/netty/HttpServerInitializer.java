@@ -1,5 +1,6 @@
 package com.example.netty;
 
+import com.example.netty.config.AppConfig;
 import com.example.netty.config.SslConfig;
 import com.example.netty.middleware.LoggingMiddleware;
 import io.netty.channel.ChannelInitializer;
@@ -8,6 +9,10 @@ import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.ssl.SslContext;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.handler.timeout.IdleStateHandler;
+
+import java.util.concurrent.TimeUnit;
 
 public class HttpServerInitializer extends ChannelInitializer<SocketChannel> {
     
@@ -38,12 +43,22 @@ public class HttpServerInitializer extends ChannelInitializer<SocketChannel> {
             }
         }
         
+        // Idle keep-alive connections are closed by HttpServerHandler on the IdleStateEvent.
+        // observeOutput: a large download to a slow client is still flushing, that counts as activity
+        int idleTimeoutSeconds = AppConfig.getInstance().getHttpIdleTimeoutSeconds();
+        if (idleTimeoutSeconds > 0) {
+            pipeline.addLast(new IdleStateHandler(true, 0, 0, idleTimeoutSeconds, TimeUnit.SECONDS));
+        }
+        
         // HTTP codec
         pipeline.addLast(new HttpServerCodec());
         
         // HTTP aggregator - để có thể đọc full HTTP content
         pipeline.addLast(new HttpObjectAggregator(65536));
         
+        // Writes large static files in chunks when TLS is on (see HttpServerHandler.writeFile)
+        pipeline.addLast(new ChunkedWriteHandler());
+        
         // Logging middleware - log all requests and responses
         pipeline.addLast(new LoggingMiddleware());
         
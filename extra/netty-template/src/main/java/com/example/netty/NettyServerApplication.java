@@ -1,13 +1,18 @@
 package com.example.netty;
 
+import com.example.netty.config.AppConfig;
 import com.example.netty.config.SslConfig;
+import com.example.netty.runtime.BlockingExecutor;
+import com.example.netty.runtime.EventLoopLagMonitor;
 import com.example.netty.session.SessionManager;
+import com.example.netty.staticfile.StaticFileIndex;
+import com.example.netty.transport.ServerTransport;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.ChannelFuture;
-import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public class NettyServerApplication {
     
@@ -18,42 +23,47 @@ public class NettyServerApplication {
         SslConfig sslConfig = SslConfig.getInstance();
         boolean sslEnabled = sslConfig.isSslEnabled();
         
-        EventLoopGroup bossGroup = new NioEventLoopGroup(1);
-        EventLoopGroup workerGroup = new NioEventLoopGroup();
+        // Native epoll on Linux when available, NIO otherwise (server.transport in app.properties)
+        ServerTransport transport = ServerTransport.select(AppConfig.getInstance());
+        EventLoopGroup bossGroup = transport.newBossGroup();
+        EventLoopGroup workerGroup = transport.newWorkerGroup();
+        System.out.println("Transport: " + transport);
+        // Served by GET /metrics/event-loop together with the blocking executor stats
+        EventLoopLagMonitor.getInstance().start("worker", workerGroup,
+                AppConfig.getInstance().getEventLoopLagIntervalMillis());
         
         // Add shutdown hook for graceful shutdown
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             System.out.println("\nShutting down gracefully...");
+            BlockingExecutor.getInstance().shutdown();
             SessionManager.getInstance().shutdown();
             workerGroup.shutdownGracefully();
             bossGroup.shutdownGracefully();
         }));
         
         try {
+            // Indexed before the first request can reach /static/
+            StaticFileIndex staticFiles = StaticFileIndex.getInstance();
+            System.out.println("Static files: " + staticFiles.size() + " indexed, " + staticFiles.cachedFiles()
+                    + " cached in memory (" + staticFiles.cachedBytes() + " bytes)");
+            
             // Start HTTP server
-            ServerBootstrap httpBootstrap = new ServerBootstrap();
-            httpBootstrap.group(bossGroup, workerGroup)
-                    .channel(NioServerSocketChannel.class)
-                    .childHandler(new HttpServerInitializer(false))
-                    .option(ChannelOption.SO_BACKLOG, 128)
-                    .childOption(ChannelOption.SO_KEEPALIVE, true);
+            ServerBootstrap httpBootstrap = transport.configure(new ServerBootstrap())
+                    .group(bossGroup, workerGroup)
+                    .childHandler(new HttpServerInitializer(false));
             
             System.out.println("Netty HTTP Server starting on port " + HTTP_PORT + "...");
-            ChannelFuture httpFuture = httpBootstrap.bind(HTTP_PORT).sync();
+            List<ChannelFuture> serverChannels = new ArrayList<>(transport.bind(httpBootstrap, HTTP_PORT));
             System.out.println("HTTP Server started successfully on port " + HTTP_PORT);
             
             // Start HTTPS server if SSL is enabled
-            ChannelFuture httpsFuture = null;
             if (sslEnabled) {
-                ServerBootstrap httpsBootstrap = new ServerBootstrap();
-                httpsBootstrap.group(bossGroup, workerGroup)
-                        .channel(NioServerSocketChannel.class)
-                        .childHandler(new HttpServerInitializer(true))
-                        .option(ChannelOption.SO_BACKLOG, 128)
-                        .childOption(ChannelOption.SO_KEEPALIVE, true);
+                ServerBootstrap httpsBootstrap = transport.configure(new ServerBootstrap())
+                        .group(bossGroup, workerGroup)
+                        .childHandler(new HttpServerInitializer(true));
                 
                 System.out.println("Netty HTTPS Server starting on port " + HTTPS_PORT + "...");
-                httpsFuture = httpsBootstrap.bind(HTTPS_PORT).sync();
+                serverChannels.addAll(transport.bind(httpsBootstrap, HTTPS_PORT));
                 System.out.println("HTTPS Server started successfully on port " + HTTPS_PORT);
             }
             
@@ -88,12 +98,12 @@ public class NettyServerApplication {
             }
             System.out.println("==========================\n");
             
-            // Wait for both servers to close
-            httpFuture.channel().closeFuture().sync();
-            if (httpsFuture != null) {
-                httpsFuture.channel().closeFuture().sync();
+            // Wait for all listening sockets (one per boss thread and port with epoll) to close
+            for (ChannelFuture serverChannel : serverChannels) {
+                serverChannel.channel().closeFuture().sync();
             }
         } finally {
+            BlockingExecutor.getInstance().shutdown();
             SessionManager.getInstance().shutdown();
             workerGroup.shutdownGracefully();
             bossGroup.shutdownGracefully();
@@ -0,0 +1,104 @@
+package com.example.netty.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency of a cheap event-loop route while other clients keep blocking routes busy, then the server's
+ * GET /metrics/event-loop. Run once with blocking.offload.enabled=true and once with false:
+ *
+ * <pre>
+ * java -cp target/netty-server-standalone.jar com.example.netty.benchmark.EventLoopLagProbeMain \
+ *     http://localhost:8080 /hello /login 32 20
+ * </pre>
+ *
+ * Arguments: base URL, blocking path, probe path, loader threads, seconds.
+ * The loaders send a made-up bearer token, so every request looks its session up in the session store.
+ */
+public class EventLoopLagProbeMain {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        String blockingPath = args.length > 1 ? args[1] : "/hello";
+        String probePath = args.length > 2 ? args[2] : "/login";
+        int loaders = args.length > 3 ? Integer.parseInt(args[3]) : 32;
+        int seconds = args.length > 4 ? Integer.parseInt(args[4]) : 20;
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        AtomicLong loadRequests = new AtomicLong();
+        AtomicLong loadErrors = new AtomicLong();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < loaders; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + blockingPath))
+                    .header("Authorization", "Bearer probe-" + i)
+                    .build();
+            Thread thread = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    try {
+                        client.send(request, HttpResponse.BodyHandlers.discarding());
+                        loadRequests.incrementAndGet();
+                    } catch (Exception e) {
+                        loadErrors.incrementAndGet();
+                    }
+                }
+            }, "probe-load-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+
+        // One request at a time, so each sample is the wait for a free event loop plus the route itself
+        HttpRequest probe = HttpRequest.newBuilder(URI.create(baseUrl + probePath)).build();
+        long[] samples = new long[1024];
+        int count = 0;
+        int probeErrors = 0;
+        while (System.nanoTime() < deadline) {
+            long start = System.nanoTime();
+            try {
+                client.send(probe, HttpResponse.BodyHandlers.discarding());
+            } catch (Exception e) {
+                probeErrors++;
+                continue;
+            }
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = System.nanoTime() - start;
+            Thread.sleep(10);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Arrays.sort(samples, 0, count);
+        System.out.printf("load: %s x%d, %.0f requests/s, %d errors%n", blockingPath, loaders,
+                loadRequests.get() / (double) seconds, loadErrors.get());
+        System.out.printf("probe: %s, %d samples, %d errors%n", probePath, count, probeErrors);
+        System.out.printf("probe ms  p50 %.3f  p99 %.3f  max %.3f%n", percentile(samples, count, 0.50),
+                percentile(samples, count, 0.99), count == 0 ? 0 : samples[count - 1] / 1e6);
+
+        HttpResponse<String> metrics = client.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/metrics/event-loop")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        System.out.println("server: " + metrics.body());
+    }
+
+    private static double percentile(long[] sorted, int count, double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        int index = Math.min(count - 1, (int) Math.ceil(fraction * count) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
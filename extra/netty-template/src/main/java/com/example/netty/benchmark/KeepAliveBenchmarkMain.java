@@ -0,0 +1,191 @@
+package com.example.netty.benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Requests/sec of the server with a new connection per request, with keep-alive and with pipelining.
+ * Plain sockets, so every mode sends exactly the same request bytes:
+ *
+ * <pre>
+ * java -cp target/netty-server-standalone.jar com.example.netty.benchmark.KeepAliveBenchmarkMain \
+ *     localhost 8080 /static/test.txt 16 10 8
+ * </pre>
+ *
+ * Arguments: host, port, path, connections, seconds per mode, pipeline depth.
+ * The server logs every request (LoggingMiddleware), so absolute numbers include that; compare the modes.
+ */
+public class KeepAliveBenchmarkMain {
+
+    private enum Mode {
+        CLOSE, KEEP_ALIVE, PIPELINED
+    }
+
+    public static void main(String[] args) throws Exception {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+        String path = args.length > 2 ? args[2] : "/static/test.txt";
+        int connections = args.length > 3 ? Integer.parseInt(args[3]) : 16;
+        int seconds = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+        int depth = args.length > 5 ? Integer.parseInt(args[5]) : 8;
+
+        // A round trip is one request, or one batch of depth requests when pipelined
+        System.out.printf("%-12s %12s %16s %10s%n", "mode", "requests/s", "round trip ms", "errors");
+        for (Mode mode : Mode.values()) {
+            // Short warm-up so JIT and connection setup of the first mode do not skew it
+            run(host, port, path, connections, 2, depth, mode);
+            Result result = run(host, port, path, connections, seconds, depth, mode);
+            System.out.printf("%-12s %12.0f %16.3f %10d%n", mode.name().toLowerCase(Locale.ROOT),
+                    result.requests / (double) seconds,
+                    result.roundTrips == 0 ? 0 : result.busyNanos / 1e6 / result.roundTrips, result.errors);
+        }
+    }
+
+    private static Result run(String host, int port, String path, int connections, int seconds, int depth, Mode mode)
+            throws InterruptedException {
+        byte[] request = request(host, path, mode == Mode.CLOSE);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        AtomicLong requests = new AtomicLong();
+        AtomicLong roundTrips = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        AtomicLong busyNanos = new AtomicLong();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < connections; i++) {
+            Thread thread = new Thread(() -> {
+                int batch = batchSize(mode, depth);
+                Socket socket = null;
+                OutputStream out = null;
+                InputStream in = null;
+                try {
+                    while (System.nanoTime() < deadline) {
+                        try {
+                            if (socket == null) {
+                                socket = new Socket(host, port);
+                                socket.setTcpNoDelay(true);
+                                out = socket.getOutputStream();
+                                in = new BufferedInputStream(socket.getInputStream());
+                            }
+                            long start = System.nanoTime();
+                            for (int r = 0; r < batch; r++) {
+                                out.write(request);
+                            }
+                            out.flush();
+                            boolean keepOpen = true;
+                            for (int r = 0; r < batch; r++) {
+                                keepOpen &= readResponse(in);
+                            }
+                            busyNanos.addAndGet(System.nanoTime() - start);
+                            requests.addAndGet(batch);
+                            roundTrips.incrementAndGet();
+                            if (!keepOpen) {
+                                socket.close();
+                                socket = null;
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                            closeQuietly(socket);
+                            socket = null;
+                        }
+                    }
+                } finally {
+                    closeQuietly(socket);
+                }
+            }, "bench-" + mode + "-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return new Result(requests.get(), roundTrips.get(), errors.get(), busyNanos.get());
+    }
+
+    private static int batchSize(Mode mode, int depth) {
+        return mode == Mode.PIPELINED ? Math.max(depth, 1) : 1;
+    }
+
+    private static byte[] request(String host, String path, boolean close) {
+        String request = "GET " + path + " HTTP/1.1\r\n"
+                + "Host: " + host + "\r\n"
+                + (close ? "Connection: close\r\n" : "")
+                + "\r\n";
+        return request.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Reads one response with a Content-Length body. Returns false when the server closes the connection after it.
+     */
+    private static boolean readResponse(InputStream in) throws IOException {
+        String statusLine = readLine(in);
+        if (statusLine == null || !statusLine.startsWith("HTTP/1.")) {
+            throw new IOException("No response: " + statusLine);
+        }
+        int contentLength = 0;
+        boolean close = false;
+        String line;
+        while ((line = readLine(in)) != null && !line.isEmpty()) {
+            String lower = line.toLowerCase(Locale.ROOT);
+            if (lower.startsWith("content-length:")) {
+                contentLength = Integer.parseInt(line.substring("content-length:".length()).trim());
+            } else if (lower.startsWith("connection:") && lower.contains("close")) {
+                close = true;
+            }
+        }
+        if (line == null) {
+            throw new IOException("Connection closed inside the headers");
+        }
+        if (in.readNBytes(contentLength).length < contentLength) {
+            throw new IOException("Connection closed inside the body");
+        }
+        return !close;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                byte[] bytes = line.toByteArray();
+                int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+                return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+            }
+            line.write(b);
+        }
+        return line.size() == 0 ? null : line.toString(StandardCharsets.US_ASCII);
+    }
+
+    private static void closeQuietly(Socket socket) {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // already broken
+            }
+        }
+    }
+
+    private static class Result {
+        final long requests;
+        final long roundTrips;
+        final long errors;
+        // Summed over all connections: write of the request(s) to the last response byte
+        final long busyNanos;
+
+        Result(long requests, long roundTrips, long errors, long busyNanos) {
+            this.requests = requests;
+            this.roundTrips = roundTrips;
+            this.errors = errors;
+            this.busyNanos = busyNanos;
+        }
+    }
+}
@@ -60,6 +60,90 @@ public class AppConfig {
         return properties.getProperty("ssl.key.path");
     }
     
+    /**
+     * Seconds a connection may stay without reads or writes before it is closed (0 = never).
+     */
+    public int getHttpIdleTimeoutSeconds() {
+        return Integer.parseInt(properties.getProperty("http.idle.timeout.seconds", "60"));
+    }
+    
+    /**
+     * Requests served on one keep-alive connection; the last one is answered with Connection: close (0 = no limit).
+     */
+    public int getHttpMaxRequestsPerConnection() {
+        return Integer.parseInt(properties.getProperty("http.keepalive.max.requests", "1000"));
+    }
+    
+    /**
+     * auto (epoll on Linux when the native library loads, NIO otherwise), epoll or nio.
+     */
+    public String getServerTransport() {
+        return properties.getProperty("server.transport", "auto").trim();
+    }
+    
+    /**
+     * Boss threads; with epoll each one gets its own SO_REUSEPORT listening socket per port.
+     */
+    public int getServerBossThreads() {
+        return Integer.parseInt(properties.getProperty("server.boss.threads", "1"));
+    }
+    
+    /**
+     * Worker (I/O) threads, 0 = Netty's default of 2 x available processors.
+     */
+    public int getServerWorkerThreads() {
+        return Integer.parseInt(properties.getProperty("server.worker.threads", "0"));
+    }
+    
+    public int getServerSoBacklog() {
+        return Integer.parseInt(properties.getProperty("server.so.backlog", "1024"));
+    }
+    
+    public int getServerWriteBufferLowWaterMark() {
+        return Integer.parseInt(properties.getProperty("server.write.buffer.low", "32768"));
+    }
+    
+    public int getServerWriteBufferHighWaterMark() {
+        return Integer.parseInt(properties.getProperty("server.write.buffer.high", "65536"));
+    }
+    
+    /**
+     * false runs blocking handlers on the I/O event loop as well (only for comparing event-loop lag).
+     */
+    public boolean isBlockingOffloadEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("blocking.offload.enabled", "true"));
+    }
+    
+    public int getBlockingExecutorThreads() {
+        return Integer.parseInt(properties.getProperty("blocking.executor.threads", "32"));
+    }
+    
+    public int getBlockingExecutorQueueCapacity() {
+        return Integer.parseInt(properties.getProperty("blocking.executor.queue.capacity", "1000"));
+    }
+    
+    public int getEventLoopLagIntervalMillis() {
+        return Integer.parseInt(properties.getProperty("metrics.eventloop.interval.ms", "100"));
+    }
+    
+    /**
+     * Directory served under /static/; empty serves the static folder of the classpath.
+     */
+    public String getStaticDir() {
+        return properties.getProperty("static.dir", "").trim();
+    }
+    
+    /**
+     * Files up to this size are kept in memory; larger ones are sent from disk with sendfile.
+     */
+    public int getStaticCacheMaxFileBytes() {
+        return Integer.parseInt(properties.getProperty("static.cache.max.file.bytes", "65536"));
+    }
+    
+    public long getStaticCacheMaxTotalBytes() {
+        return Long.parseLong(properties.getProperty("static.cache.max.total.bytes", "33554432"));
+    }
+    
     public String getProperty(String key) {
         return properties.getProperty(key);
     }
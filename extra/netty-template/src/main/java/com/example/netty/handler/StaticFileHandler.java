@@ -1,106 +1,183 @@
 package com.example.netty.handler;
 
+import com.example.netty.staticfile.FileRegionResponse;
+import com.example.netty.staticfile.StaticFile;
+import com.example.netty.staticfile.StaticFileIndex;
 import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.DateFormatter;
 import io.netty.handler.codec.http.*;
 import io.netty.util.CharsetUtil;
 
-import java.io.InputStream;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.util.Date;
 
 import static io.netty.handler.codec.http.HttpResponseStatus.*;
 import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
 
+/**
+ * Serves the files of the {@link StaticFileIndex}: cached files from their shared direct buffer, the others as a
+ * {@link FileRegionResponse}. Answers If-None-Match / If-Modified-Since with 304 and a single byte range with 206.
+ */
 public class StaticFileHandler {
-    
-    private static final String STATIC_DIR = "/static";
-    
-    public FullHttpResponse handleStaticFileRequest(String uri) {
+
+    private static final String CACHE_CONTROL = "max-age=3600"; // Cache for 1 hour
+    // parseRange: the range starts after the end of the file
+    private static final long[] UNSATISFIABLE = new long[0];
+
+    private final StaticFileIndex index;
+
+    public StaticFileHandler() {
+        this(StaticFileIndex.getInstance());
+    }
+
+    public StaticFileHandler(StaticFileIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * @param path request path below /static, still URL-encoded and without the query string
+     */
+    public FullHttpResponse handleStaticFileRequest(FullHttpRequest request, String path) {
+        String decodedPath;
         try {
-            // Decode URI
-            String decodedUri = URLDecoder.decode(uri, StandardCharsets.UTF_8.name());
-            
-            // Remove query parameters if present
-            int queryIndex = decodedUri.indexOf('?');
-            if (queryIndex != -1) {
-                decodedUri = decodedUri.substring(0, queryIndex);
+            decodedPath = URLDecoder.decode(path, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse(BAD_REQUEST, "Malformed path");
+        }
+
+        // Only indexed files exist, so ".." or absolute paths simply are not found
+        StaticFile file = index.get(decodedPath);
+        if (file == null) {
+            return createErrorResponse(NOT_FOUND, "File not found: " + decodedPath);
+        }
+
+        HttpHeaders headers = request.headers();
+        if (isNotModified(headers, file)) {
+            FullHttpResponse response = new DefaultFullHttpResponse(HTTP_1_1, NOT_MODIFIED, Unpooled.EMPTY_BUFFER);
+            setValidators(response, file);
+            return response;
+        }
+
+        String range = headers.get(HttpHeaderNames.RANGE);
+        if (range != null && ifRangeMatches(headers.get(HttpHeaderNames.IF_RANGE), file)) {
+            long[] bounds = parseRange(range, file.length());
+            if (bounds == UNSATISFIABLE) {
+                FullHttpResponse response = createErrorResponse(REQUESTED_RANGE_NOT_SATISFIABLE,
+                        "The range starts after the end of the file");
+                response.headers().set(HttpHeaderNames.CONTENT_RANGE, "bytes */" + file.length());
+                return response;
             }
-            
-            // Security check: prevent directory traversal
-            if (decodedUri.contains("..") || decodedUri.contains("./") || decodedUri.contains("/.")) {
-                return createErrorResponse(FORBIDDEN, "Access denied");
+            if (bounds != null) {
+                long count = bounds[1] - bounds[0] + 1;
+                FullHttpResponse response = createFileResponse(PARTIAL_CONTENT, file, bounds[0], count);
+                response.headers().set(HttpHeaderNames.CONTENT_RANGE,
+                        "bytes " + bounds[0] + "-" + bounds[1] + "/" + file.length());
+                return response;
             }
-            
-            // Build resource path
-            String resourcePath = STATIC_DIR + decodedUri;
-            
-            // Try to load resource from classpath
-            InputStream inputStream = getClass().getResourceAsStream(resourcePath);
-            
-            if (inputStream == null) {
-                return createErrorResponse(NOT_FOUND, "File not found: " + decodedUri);
+        }
+        return createFileResponse(OK, file, 0, file.length());
+    }
+
+    private FullHttpResponse createFileResponse(HttpResponseStatus status, StaticFile file, long offset, long count) {
+        FullHttpResponse response = file.isCached()
+                ? new DefaultFullHttpResponse(HTTP_1_1, status, file.content(offset, count))
+                : new FileRegionResponse(status, file.file(), offset, count);
+
+        response.headers().set(HttpHeaderNames.CONTENT_TYPE, file.contentType());
+        response.headers().set(HttpHeaderNames.CONTENT_LENGTH, count);
+        response.headers().set(HttpHeaderNames.ACCEPT_RANGES, HttpHeaderValues.BYTES);
+        setValidators(response, file);
+        return response;
+    }
+
+    private static void setValidators(FullHttpResponse response, StaticFile file) {
+        response.headers().set(HttpHeaderNames.ETAG, file.etag());
+        response.headers().set(HttpHeaderNames.LAST_MODIFIED, file.lastModified());
+        response.headers().set(HttpHeaderNames.CACHE_CONTROL, CACHE_CONTROL);
+    }
+
+    // If-None-Match wins over If-Modified-Since when both are sent (RFC 7232 section 6)
+    private static boolean isNotModified(HttpHeaders headers, StaticFile file) {
+        String ifNoneMatch = headers.get(HttpHeaderNames.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                // Weak comparison: W/"x" matches "x"
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(file.etag())) {
+                    return true;
+                }
             }
-            
-            // Read file content
-            byte[] fileContent = inputStream.readAllBytes();
-            inputStream.close();
-            
-            // Determine content type
-            String contentType = getContentType(decodedUri);
-            
-            // Create response
-            FullHttpResponse response = new DefaultFullHttpResponse(
-                    HTTP_1_1, 
-                    OK, 
-                    Unpooled.copiedBuffer(fileContent)
-            );
-            
-            response.headers().set(HttpHeaderNames.CONTENT_TYPE, contentType);
-            response.headers().set(HttpHeaderNames.CONTENT_LENGTH, fileContent.length);
-            response.headers().set(HttpHeaderNames.CACHE_CONTROL, "max-age=3600"); // Cache for 1 hour
-            
-            return response;
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-            return createErrorResponse(INTERNAL_SERVER_ERROR, "Error serving file: " + e.getMessage());
+            return false;
         }
+        String ifModifiedSinceHeader = headers.get(HttpHeaderNames.IF_MODIFIED_SINCE);
+        Date ifModifiedSince = ifModifiedSinceHeader == null ? null : DateFormatter.parseHttpDate(ifModifiedSinceHeader);
+        return ifModifiedSince != null && file.lastModifiedMillis() <= ifModifiedSince.getTime();
     }
-    
-    private String getContentType(String uri) {
-        String lowerUri = uri.toLowerCase();
-        
-        if (lowerUri.endsWith(".html") || lowerUri.endsWith(".htm")) {
-            return "text/html; charset=UTF-8";
-        } else if (lowerUri.endsWith(".css")) {
-            return "text/css; charset=UTF-8";
-        } else if (lowerUri.endsWith(".js")) {
-            return "application/javascript; charset=UTF-8";
-        } else if (lowerUri.endsWith(".json")) {
-            return "application/json; charset=UTF-8";
-        } else if (lowerUri.endsWith(".png")) {
-            return "image/png";
-        } else if (lowerUri.endsWith(".jpg") || lowerUri.endsWith(".jpeg")) {
-            return "image/jpeg";
-        } else if (lowerUri.endsWith(".gif")) {
-            return "image/gif";
-        } else if (lowerUri.endsWith(".svg")) {
-            return "image/svg+xml";
-        } else if (lowerUri.endsWith(".ico")) {
-            return "image/x-icon";
-        } else if (lowerUri.endsWith(".pdf")) {
-            return "application/pdf";
-        } else if (lowerUri.endsWith(".txt")) {
-            return "text/plain; charset=UTF-8";
-        } else if (lowerUri.endsWith(".xml")) {
-            return "application/xml; charset=UTF-8";
-        } else if (lowerUri.endsWith(".zip")) {
-            return "application/zip";
-        } else {
-            return "application/octet-stream";
+
+    // Without If-Range the range always applies; with it only while the file is still the version the client has
+    private static boolean ifRangeMatches(String ifRange, StaticFile file) {
+        if (ifRange == null) {
+            return true;
+        }
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // Strong comparison, a weak tag never matches
+            return ifRange.equals(file.etag());
         }
+        Date date = DateFormatter.parseHttpDate(ifRange);
+        return date != null && date.getTime() == file.lastModifiedMillis();
     }
-    
+
+    /**
+     * First and last byte of a single {@code bytes=} range, {@link #UNSATISFIABLE}, or null when the header
+     * is invalid or asks for several ranges; the whole file is sent then.
+     */
+    private static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=")) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0 || spec.indexOf(',') >= 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // bytes=-N: the last N bytes
+                long suffix = last.isEmpty() ? -1 : Long.parseLong(last);
+                if (suffix < 0) {
+                    return null;
+                }
+                if (suffix == 0) {
+                    return UNSATISFIABLE;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? length - 1 : Long.parseLong(last);
+                if (end < start) {
+                    return null;
+                }
+                end = Math.min(end, length - 1);
+            }
+            if (start >= length) {
+                return UNSATISFIABLE;
+            }
+            return new long[] { start, end };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     private FullHttpResponse createErrorResponse(HttpResponseStatus status, String message) {
         String errorHtml = "<!DOCTYPE html>\n" +
                 "<html>\n" +
@@ -110,16 +187,16 @@ public class StaticFileHandler {
                 "<p>" + message + "</p>\n" +
                 "</body>\n" +
                 "</html>";
-        
+
         FullHttpResponse response = new DefaultFullHttpResponse(
                 HTTP_1_1,
                 status,
                 Unpooled.copiedBuffer(errorHtml, CharsetUtil.UTF_8)
         );
-        
+
         response.headers().set(HttpHeaderNames.CONTENT_TYPE, "text/html; charset=UTF-8");
         response.headers().set(HttpHeaderNames.CONTENT_LENGTH, response.content().readableBytes());
-        
+
         return response;
     }
 }
@@ -0,0 +1,58 @@
+package com.example.netty.router;
+
+import static com.example.netty.router.RouteHandler.blocking;
+import static io.netty.handler.codec.http.HttpResponseStatus.OK;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.example.netty.common.WonderUtils;
+import com.example.netty.handler.AppHandler;
+import com.example.netty.handler.OAuthHandler;
+import com.example.netty.handler.StaticFileHandler;
+import com.example.netty.runtime.BlockingExecutor;
+import com.example.netty.runtime.EventLoopLagMonitor;
+
+/**
+ * Routes of the main server. The handlers are created once and shared by every connection; they only hold
+ * thread-safe state (ObjectMapper, the SessionManager and GoogleOAuthHandler singletons).
+ */
+public final class AppRoutes {
+
+    private AppRoutes() {
+    }
+
+    public static Router router() {
+        return Holder.ROUTER;
+    }
+
+    static Router build(OAuthHandler oauthHandler, AppHandler appHandler, StaticFileHandler staticFileHandler) {
+        return Router.builder()
+                .get("/login", (request, match) -> oauthHandler.handleLoginRequest())
+                // Sessions may be read from SQLite, the callback also calls Google's token and userinfo endpoints
+                .get("/profile", blocking((request, match) -> oauthHandler.handleProfileRequest(request)))
+                .get("/logout", blocking((request, match) -> oauthHandler.handleLogoutRequest(request)))
+                .get("/oauth/callback", blocking((request, match) -> oauthHandler.handleOAuthCallback(request.uri())))
+                .get("/hello", blocking((request, match) -> appHandler.handleGetRequest(request)))
+                .get("/hello/*", blocking((request, match) -> appHandler.handleGetRequest(request)))
+                .post("/data", blocking((request, match) -> appHandler.handlePostRequest(request)))
+                .post("/data/*", blocking((request, match) -> appHandler.handlePostRequest(request)))
+                // Only a map lookup (files are rechecked on the index's own thread), served from memory or with
+                // sendfile, so it stays on the event loop
+                .get("/static/*", (request, match) -> staticFileHandler.handleStaticFileRequest(request, "/" + match.wildcard()))
+                .get("/metrics/event-loop", (request, match) -> WonderUtils.createJsonResponse(OK, eventLoopMetrics()))
+                .build();
+    }
+
+    private static Map<String, Object> eventLoopMetrics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("loops", EventLoopLagMonitor.getInstance().snapshot());
+        result.put("blockingExecutor", BlockingExecutor.getInstance().snapshot());
+        return result;
+    }
+
+    // Built on first use, after AppConfig and the session store are available
+    private static final class Holder {
+        static final Router ROUTER = build(new OAuthHandler(), new AppHandler(), new StaticFileHandler());
+    }
+}
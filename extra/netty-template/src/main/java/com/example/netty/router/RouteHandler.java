@@ -0,0 +1,32 @@
+package com.example.netty.router;
+
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+
+/**
+ * Handler of one route. One instance serves every connection, so implementations must be thread-safe.
+ * Handlers that block (disk, database, outbound calls) say so with {@link #blocking(RouteHandler)}; they are run
+ * on the BlockingExecutor instead of the I/O event loop.
+ */
+@FunctionalInterface
+public interface RouteHandler {
+    FullHttpResponse handle(FullHttpRequest request, RouteMatch match);
+
+    default boolean isBlocking() {
+        return false;
+    }
+
+    static RouteHandler blocking(RouteHandler handler) {
+        return new RouteHandler() {
+            @Override
+            public FullHttpResponse handle(FullHttpRequest request, RouteMatch match) {
+                return handler.handle(request, match);
+            }
+
+            @Override
+            public boolean isBlocking() {
+                return true;
+            }
+        };
+    }
+}
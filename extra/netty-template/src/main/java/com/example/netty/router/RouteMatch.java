@@ -0,0 +1,82 @@
+package com.example.netty.router;
+
+/**
+ * Result of {@link Router#match}. Matches of routes without path parameters are built once with the router
+ * and shared; only a route with parameters gets a new instance holding the values.
+ */
+public final class RouteMatch {
+
+    public enum Status {
+        FOUND, NOT_FOUND, METHOD_NOT_ALLOWED
+    }
+
+    static final RouteMatch NOT_FOUND = new RouteMatch(Status.NOT_FOUND, null, null, null, null);
+    static final String WILDCARD = "*";
+    private static final String[] NO_VALUES = new String[0];
+
+    private final Status status;
+    private final RouteHandler handler;
+    private final String[] paramNames;
+    final String[] values;
+    private final String allow;
+
+    private RouteMatch(Status status, RouteHandler handler, String[] paramNames, String[] values, String allow) {
+        this.status = status;
+        this.handler = handler;
+        this.paramNames = paramNames;
+        this.values = values;
+        this.allow = allow;
+    }
+
+    static RouteMatch found(RouteHandler handler, String[] paramNames) {
+        return new RouteMatch(Status.FOUND, handler, paramNames, paramNames.length == 0 ? NO_VALUES : null, null);
+    }
+
+    static RouteMatch methodNotAllowed(String allow) {
+        return new RouteMatch(Status.METHOD_NOT_ALLOWED, null, null, null, allow);
+    }
+
+    /**
+     * This match if the route has no parameters, otherwise a copy with room for their values.
+     */
+    RouteMatch newInstance() {
+        return values != null ? this : new RouteMatch(status, handler, paramNames, new String[paramNames.length], null);
+    }
+
+    public Status status() {
+        return status;
+    }
+
+    public RouteHandler handler() {
+        return handler;
+    }
+
+    /**
+     * Value of {@code {name}} in the route pattern, still URL-encoded; null when the route has no such parameter.
+     */
+    public String param(String name) {
+        if (paramNames == null) {
+            return null;
+        }
+        for (int i = 0; i < paramNames.length; i++) {
+            if (paramNames[i].equals(name)) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Rest of the path matched by a trailing {@code *}, without the query string.
+     */
+    public String wildcard() {
+        return param(WILDCARD);
+    }
+
+    /**
+     * Methods of the path for the Allow header of a 405 response.
+     */
+    public String allow() {
+        return allow;
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.netty.router;
+
+import static io.netty.handler.codec.http.HttpResponseStatus.METHOD_NOT_ALLOWED;
+import static io.netty.handler.codec.http.HttpResponseStatus.NOT_FOUND;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.example.netty.common.WonderUtils;
+
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+
+/**
+ * Radix tree of route patterns, built once by {@link Builder} and read-only afterwards, so one router serves
+ * all event loops without locking.
+ *
+ * Patterns are static text, {@code {name}} for one path segment and a trailing {@code *} for the rest of the path.
+ * On a conflict static text wins over a parameter and a parameter over a wildcard. Matching walks the URI in place
+ * up to the query string: no substring or split, only the values of path parameters are allocated.
+ */
+public final class Router {
+
+    private final Node root;
+
+    private Router(Node root) {
+        this.root = root;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public RouteMatch match(HttpMethod method, String uri) {
+        int end = uri.indexOf('?');
+        if (end < 0) {
+            end = uri.length();
+        }
+        RouteMatch match = find(root, method, uri, 0, end, 0);
+        return match == null ? RouteMatch.NOT_FOUND : match;
+    }
+
+    public FullHttpResponse dispatch(FullHttpRequest request) {
+        return dispatch(request, match(request.method(), request.uri()));
+    }
+
+    /**
+     * Runs the handler of a match from {@link #match}, or builds the 404 / 405 response.
+     */
+    public FullHttpResponse dispatch(FullHttpRequest request, RouteMatch match) {
+        switch (match.status()) {
+            case FOUND:
+                return match.handler().handle(request, match);
+            case METHOD_NOT_ALLOWED: {
+                FullHttpResponse response = WonderUtils.createJsonResponse(METHOD_NOT_ALLOWED,
+                        WonderUtils.createErrorJson("Method Not Allowed", "Allowed methods: " + match.allow()));
+                response.headers().set(HttpHeaderNames.ALLOW, match.allow());
+                return response;
+            }
+            default:
+                return WonderUtils.createJsonResponse(NOT_FOUND,
+                        WonderUtils.createErrorJson("Not Found", "The requested endpoint does not exist"));
+        }
+    }
+
+    // pos: first unmatched char of the path; paramIndex: parameters matched on the way to node
+    private static RouteMatch find(Node node, HttpMethod method, String path, int pos, int end, int paramIndex) {
+        if (pos == end && node.methods.length > 0) {
+            return node.matchFor(method);
+        }
+
+        if (pos < end) {
+            Node child = node.staticChild(path.charAt(pos));
+            if (child != null && path.regionMatches(pos, child.prefix, 0, child.prefix.length())
+                    && pos + child.prefix.length() <= end) {
+                RouteMatch match = find(child, method, path, pos + child.prefix.length(), end, paramIndex);
+                if (match != null) {
+                    return match;
+                }
+            }
+
+            if (node.paramChild != null) {
+                int segmentEnd = pos;
+                while (segmentEnd < end && path.charAt(segmentEnd) != '/') {
+                    segmentEnd++;
+                }
+                if (segmentEnd > pos) {
+                    RouteMatch match = find(node.paramChild, method, path, segmentEnd, end, paramIndex + 1);
+                    if (match != null) {
+                        if (match.status() == RouteMatch.Status.FOUND) {
+                            match.values[paramIndex] = path.substring(pos, segmentEnd);
+                        }
+                        return match;
+                    }
+                }
+            }
+        }
+
+        if (node.wildcardChild != null && node.wildcardChild.methods.length > 0) {
+            RouteMatch match = node.wildcardChild.matchFor(method);
+            if (match.status() == RouteMatch.Status.FOUND) {
+                match.values[paramIndex] = path.substring(pos, end);
+            }
+            return match;
+        }
+        return null;
+    }
+
+    private static final class Node {
+        // Static text on the edge into this node; empty for parameter and wildcard nodes
+        String prefix;
+        // Static children, their prefixes start with distinct characters
+        Node[] children = new Node[0];
+        Node paramChild;
+        Node wildcardChild;
+
+        HttpMethod[] methods = new HttpMethod[0];
+        // Per method: shared match (no parameters) or prototype copied per request
+        RouteMatch[] matches = new RouteMatch[0];
+        RouteMatch methodNotAllowed;
+
+        Node(String prefix) {
+            this.prefix = prefix;
+        }
+
+        Node staticChild(char first) {
+            for (Node child : children) {
+                if (child.prefix.charAt(0) == first) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        RouteMatch matchFor(HttpMethod method) {
+            for (int i = 0; i < methods.length; i++) {
+                if (methods[i].equals(method)) {
+                    return matches[i].newInstance();
+                }
+            }
+            return methodNotAllowed;
+        }
+
+        void addRoute(HttpMethod method, RouteMatch match, String pattern) {
+            for (HttpMethod existing : methods) {
+                if (existing.equals(method)) {
+                    throw new IllegalArgumentException("Duplicate route " + method + " " + pattern);
+                }
+            }
+            methods = Arrays.copyOf(methods, methods.length + 1);
+            methods[methods.length - 1] = method;
+            matches = Arrays.copyOf(matches, matches.length + 1);
+            matches[matches.length - 1] = match;
+
+            StringBuilder allow = new StringBuilder();
+            for (HttpMethod allowed : methods) {
+                allow.append(allow.length() == 0 ? "" : ", ").append(allowed.name());
+            }
+            methodNotAllowed = RouteMatch.methodNotAllowed(allow.toString());
+        }
+    }
+
+    public static final class Builder {
+        private final Node root = new Node("");
+
+        private Builder() {
+        }
+
+        public Builder get(String pattern, RouteHandler handler) {
+            return add(HttpMethod.GET, pattern, handler);
+        }
+
+        public Builder post(String pattern, RouteHandler handler) {
+            return add(HttpMethod.POST, pattern, handler);
+        }
+
+        public Builder put(String pattern, RouteHandler handler) {
+            return add(HttpMethod.PUT, pattern, handler);
+        }
+
+        public Builder delete(String pattern, RouteHandler handler) {
+            return add(HttpMethod.DELETE, pattern, handler);
+        }
+
+        public Builder add(HttpMethod method, String pattern, RouteHandler handler) {
+            if (!pattern.startsWith("/")) {
+                throw new IllegalArgumentException("Route pattern must start with '/': " + pattern);
+            }
+            List<String> paramNames = new ArrayList<>();
+            Node node = root;
+            int pos = 0;
+            while (pos < pattern.length()) {
+                char c = pattern.charAt(pos);
+                if (c == '{') {
+                    int close = pattern.indexOf('}', pos);
+                    if (close < 0 || (close + 1 < pattern.length() && pattern.charAt(close + 1) != '/')) {
+                        throw new IllegalArgumentException("A parameter must be a whole segment: " + pattern);
+                    }
+                    paramNames.add(pattern.substring(pos + 1, close));
+                    if (node.paramChild == null) {
+                        node.paramChild = new Node("");
+                    }
+                    node = node.paramChild;
+                    pos = close + 1;
+                } else if (c == '*') {
+                    if (pos != pattern.length() - 1) {
+                        throw new IllegalArgumentException("'*' must end the pattern: " + pattern);
+                    }
+                    paramNames.add(RouteMatch.WILDCARD);
+                    if (node.wildcardChild == null) {
+                        node.wildcardChild = new Node("");
+                    }
+                    node = node.wildcardChild;
+                    pos++;
+                } else {
+                    int next = pos;
+                    while (next < pattern.length() && pattern.charAt(next) != '{' && pattern.charAt(next) != '*') {
+                        next++;
+                    }
+                    node = insertStatic(node, pattern.substring(pos, next));
+                    pos = next;
+                }
+            }
+            node.addRoute(method, RouteMatch.found(handler, paramNames.toArray(new String[0])), pattern);
+            return this;
+        }
+
+        public Router build() {
+            return new Router(root);
+        }
+
+        private static Node insertStatic(Node node, String text) {
+            while (!text.isEmpty()) {
+                Node child = node.staticChild(text.charAt(0));
+                if (child == null) {
+                    child = new Node(text);
+                    node.children = Arrays.copyOf(node.children, node.children.length + 1);
+                    node.children[node.children.length - 1] = child;
+                    return child;
+                }
+                int common = 0;
+                int max = Math.min(child.prefix.length(), text.length());
+                while (common < max && child.prefix.charAt(common) == text.charAt(common)) {
+                    common++;
+                }
+                if (common < child.prefix.length()) {
+                    // Split the edge: the shared part becomes a node of its own above the existing child
+                    Node split = new Node(child.prefix.substring(0, common));
+                    child.prefix = child.prefix.substring(common);
+                    split.children = new Node[] { child };
+                    for (int i = 0; i < node.children.length; i++) {
+                        if (node.children[i] == child) {
+                            node.children[i] = split;
+                        }
+                    }
+                    child = split;
+                }
+                node = child;
+                text = text.substring(common);
+            }
+            return node;
+        }
+    }
+}
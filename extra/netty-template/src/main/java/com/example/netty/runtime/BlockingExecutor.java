@@ -0,0 +1,70 @@
+package com.example.netty.runtime;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.netty.config.AppConfig;
+
+/**
+ * Bounded pool for handlers that block (disk, database, outbound HTTP), so they never run on an I/O event loop.
+ * A full queue rejects instead of growing: the caller answers 503 and the loop stays responsive.
+ */
+public class BlockingExecutor {
+
+    private static BlockingExecutor instance;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong rejected = new AtomicLong();
+
+    private BlockingExecutor(int threads, int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "blocking-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static BlockingExecutor getInstance() {
+        if (instance == null) {
+            synchronized (BlockingExecutor.class) {
+                if (instance == null) {
+                    AppConfig config = AppConfig.getInstance();
+                    instance = new BlockingExecutor(Math.max(1, config.getBlockingExecutorThreads()),
+                            config.getBlockingExecutorQueueCapacity());
+                }
+            }
+        }
+        return instance;
+    }
+
+    public void execute(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw e;
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("threads", executor.getMaximumPoolSize());
+        result.put("active", executor.getActiveCount());
+        result.put("queued", executor.getQueue().size());
+        result.put("completed", executor.getCompletedTaskCount());
+        result.put("rejected", rejected.get());
+        return result;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
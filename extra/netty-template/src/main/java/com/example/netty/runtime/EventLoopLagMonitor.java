@@ -0,0 +1,104 @@
+package com.example.netty.runtime;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+
+/**
+ * Event-loop lag: every loop runs a task scheduled {@code interval} ahead, and the time it runs late is how long
+ * the loop was busy with something else, e.g. a blocking handler. Served by GET /metrics/event-loop.
+ */
+public class EventLoopLagMonitor {
+
+    // Upper bounds (ms) of the lag buckets, the last bucket takes everything above
+    private static final long[] BUCKET_MILLIS = { 1, 5, 10, 50, 100, 500 };
+
+    private static final EventLoopLagMonitor INSTANCE = new EventLoopLagMonitor();
+    private final List<LoopLag> loops = new CopyOnWriteArrayList<>();
+
+    private EventLoopLagMonitor() {
+    }
+
+    public static EventLoopLagMonitor getInstance() {
+        return INSTANCE;
+    }
+
+    public void start(String groupName, EventLoopGroup group, int intervalMillis) {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, intervalMillis));
+        int index = 0;
+        for (EventExecutor executor : group) {
+            LoopLag lag = new LoopLag(groupName + "-" + index++);
+            loops.add(lag);
+            schedule(executor, lag, intervalNanos);
+        }
+    }
+
+    public List<Map<String, Object>> snapshot() {
+        List<Map<String, Object>> result = new ArrayList<>(loops.size());
+        for (LoopLag loop : loops) {
+            result.add(loop.snapshot());
+        }
+        return result;
+    }
+
+    private static void schedule(EventExecutor executor, LoopLag lag, long intervalNanos) {
+        if (executor.isShuttingDown()) {
+            return;
+        }
+        long due = System.nanoTime() + intervalNanos;
+        executor.schedule(() -> {
+            lag.record(Math.max(0, System.nanoTime() - due));
+            schedule(executor, lag, intervalNanos);
+        }, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static class LoopLag {
+        private final String name;
+        // Written by the loop's own thread only
+        private final AtomicLong samples = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_MILLIS.length + 1);
+
+        LoopLag(String name) {
+            this.name = name;
+        }
+
+        void record(long lagNanos) {
+            samples.incrementAndGet();
+            totalNanos.addAndGet(lagNanos);
+            if (lagNanos > maxNanos.get()) {
+                maxNanos.set(lagNanos);
+            }
+            int bucket = 0;
+            while (bucket < BUCKET_MILLIS.length && lagNanos >= TimeUnit.MILLISECONDS.toNanos(BUCKET_MILLIS[bucket])) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+        }
+
+        Map<String, Object> snapshot() {
+            long count = samples.get();
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("loop", name);
+            result.put("samples", count);
+            result.put("avgLagMicros", count == 0 ? 0 : totalNanos.get() / count / 1000);
+            result.put("maxLagMicros", maxNanos.get() / 1000);
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < BUCKET_MILLIS.length; i++) {
+                histogram.put("<" + BUCKET_MILLIS[i] + "ms", buckets.get(i));
+            }
+            histogram.put(">=" + BUCKET_MILLIS[BUCKET_MILLIS.length - 1] + "ms", buckets.get(BUCKET_MILLIS.length));
+            result.put("lagHistogram", histogram);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.netty.staticfile;
+
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+
+import java.io.File;
+
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+
+/**
+ * Response whose body is a byte range of a file. It carries no content: HttpServerHandler writes the headers and
+ * then the range as a FileRegion (sendfile), or in chunks when TLS has to encrypt it.
+ */
+public class FileRegionResponse extends DefaultFullHttpResponse {
+
+    private final File file;
+    private final long offset;
+    private final long count;
+
+    public FileRegionResponse(HttpResponseStatus status, File file, long offset, long count) {
+        super(HTTP_1_1, status, Unpooled.EMPTY_BUFFER);
+        this.file = file;
+        this.offset = offset;
+        this.count = count;
+        HttpUtil.setContentLength(this, count);
+    }
+
+    public File file() {
+        return file;
+    }
+
+    public long offset() {
+        return offset;
+    }
+
+    public long count() {
+        return count;
+    }
+}
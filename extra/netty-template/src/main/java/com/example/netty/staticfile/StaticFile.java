@@ -0,0 +1,76 @@
+package com.example.netty.staticfile;
+
+import java.io.File;
+import java.nio.file.Path;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * One indexed static file: its validators and either the cached body or the file on disk to send it from.
+ * Immutable; a changed file gets a new instance.
+ */
+public final class StaticFile {
+
+    private final String contentType;
+    private final long length;
+    // Whole seconds, the precision of Last-Modified / If-Modified-Since
+    private final long lastModifiedMillis;
+    private final String lastModified;
+    private final String etag;
+    // Unreleasable direct buffer shared by all responses, null when the file is sent from disk
+    private final ByteBuf content;
+    private final File file;
+    // The file in the static directory, null inside the jar (never changes, so never checked)
+    private final Path source;
+
+    StaticFile(String contentType, long length, long lastModifiedMillis, String lastModified, String etag,
+            ByteBuf content, File file, Path source) {
+        this.contentType = contentType;
+        this.length = length;
+        this.lastModifiedMillis = lastModifiedMillis;
+        this.lastModified = lastModified;
+        this.etag = etag;
+        this.content = content;
+        this.file = file;
+        this.source = source;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public long length() {
+        return length;
+    }
+
+    public long lastModifiedMillis() {
+        return lastModifiedMillis;
+    }
+
+    public String lastModified() {
+        return lastModified;
+    }
+
+    public String etag() {
+        return etag;
+    }
+
+    public boolean isCached() {
+        return content != null;
+    }
+
+    /**
+     * View of the cached bytes with its own reader index; releasing it does nothing.
+     */
+    public ByteBuf content(long offset, long count) {
+        return content.slice((int) offset, (int) count);
+    }
+
+    public File file() {
+        return file;
+    }
+
+    Path source() {
+        return source;
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.netty.staticfile;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.example.netty.config.AppConfig;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.DateFormatter;
+
+/**
+ * All files under the static directory, indexed at startup: content type, length, Last-Modified and ETag are
+ * computed here instead of per request. Small files are kept as read-only direct buffers that every response
+ * shares; the rest are sent from disk. Files inside the application jar that are too big for the cache are
+ * extracted to a temp directory first, so they can be sent with sendfile too.
+ *
+ * Indexed files on disk are checked again every second by a daemon thread of the index, never by an event
+ * loop: a changed file is indexed (and cached) anew and swapped into the map, a deleted one is dropped.
+ * Requests only look up the map. Files added after startup are not served until a restart.
+ * Files inside the jar cannot change and are never checked.
+ *
+ * Only indexed paths are served, so a request can never reach outside the directory. Dot files are not indexed.
+ */
+public class StaticFileIndex {
+
+    // A change on disk is served after about one second; the stat is one syscall per file and interval
+    private static final long RECHECK_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    private static StaticFileIndex instance;
+    private final Map<String, StaticFile> files = new ConcurrentHashMap<>();
+    private final int maxCachedFileBytes;
+    private final long maxCachedTotalBytes;
+    // Guarded by this
+    private int cachedFiles;
+    private long cachedBytes;
+    private Path extractDir;
+
+    private StaticFileIndex(Path root, boolean inJar, int maxCachedFileBytes, long maxCachedTotalBytes)
+            throws IOException {
+        this.maxCachedFileBytes = maxCachedFileBytes;
+        this.maxCachedTotalBytes = maxCachedTotalBytes;
+        if (root != null && Files.isDirectory(root)) {
+            List<Path> paths;
+            try (Stream<Path> walk = Files.walk(root)) {
+                paths = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+            for (Path path : paths) {
+                String key = key(root.relativize(path));
+                if (key != null) {
+                    files.put(key, load(key, path, inJar));
+                }
+            }
+        }
+        if (!inJar && !files.isEmpty()) {
+            ScheduledExecutorService rechecker = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "static-file-recheck");
+                thread.setDaemon(true);
+                return thread;
+            });
+            rechecker.scheduleWithFixedDelay(this::recheckAll, RECHECK_MILLIS, RECHECK_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public static StaticFileIndex getInstance() {
+        if (instance == null) {
+            synchronized (StaticFileIndex.class) {
+                if (instance == null) {
+                    instance = load(AppConfig.getInstance());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private static StaticFileIndex load(AppConfig config) {
+        int maxFileBytes = config.getStaticCacheMaxFileBytes();
+        long maxTotalBytes = config.getStaticCacheMaxTotalBytes();
+        try {
+            if (!config.getStaticDir().isEmpty()) {
+                return new StaticFileIndex(Paths.get(config.getStaticDir()), false, maxFileBytes, maxTotalBytes);
+            }
+            URL url = StaticFileIndex.class.getResource("/static");
+            if (url == null) {
+                return new StaticFileIndex(null, false, maxFileBytes, maxTotalBytes);
+            }
+            URI uri = url.toURI();
+            if ("jar".equals(uri.getScheme())) {
+                // Everything is read or extracted in the constructor, the jar file system is not needed afterwards
+                try (FileSystem jar = FileSystems.newFileSystem(uri, Collections.emptyMap())) {
+                    return new StaticFileIndex(jar.provider().getPath(uri), true, maxFileBytes, maxTotalBytes);
+                }
+            }
+            return new StaticFileIndex(Paths.get(uri), false, maxFileBytes, maxTotalBytes);
+        } catch (IOException | URISyntaxException e) {
+            throw new IllegalStateException("Failed to index static files", e);
+        }
+    }
+
+    /**
+     * File for a decoded request path such as {@code /css/style.css}, or null.
+     */
+    public StaticFile get(String path) {
+        return files.get(path);
+    }
+
+    public int size() {
+        return files.size();
+    }
+
+    public synchronized int cachedFiles() {
+        return cachedFiles;
+    }
+
+    public synchronized long cachedBytes() {
+        return cachedBytes;
+    }
+
+    // Runs on the recheck thread only, so entries are replaced by one writer
+    private void recheckAll() {
+        try {
+            for (Map.Entry<String, StaticFile> entry : files.entrySet()) {
+                recheck(entry.getKey(), entry.getValue());
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic task
+            System.err.println("Static file recheck failed: " + e.getMessage());
+        }
+    }
+
+    // Same length and modification second: unchanged (the precision of Last-Modified and the ETag as well)
+    private void recheck(String key, StaticFile file) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file.source(), BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            replace(key, file, null);
+            return;
+        } catch (IOException e) {
+            // Keep serving the indexed version, the next check tries again
+            return;
+        }
+        if (!attributes.isRegularFile()) {
+            replace(key, file, null);
+        } else if (attributes.size() != file.length()
+                || seconds(attributes.lastModifiedTime()) != file.lastModifiedMillis()) {
+            replace(key, file, file.source());
+        }
+    }
+
+    // Index the file at source again, or drop the entry when source is null
+    private void replace(String key, StaticFile old, Path source) {
+        synchronized (this) {
+            if (old.isCached()) {
+                cachedFiles--;
+                cachedBytes -= old.length();
+            }
+        }
+        if (source != null) {
+            try {
+                files.put(key, load(key, source, false));
+                return;
+            } catch (IOException e) {
+                // Deleted or unreadable between the stat and the read
+            }
+        }
+        files.remove(key);
+    }
+
+    private StaticFile load(String key, Path path, boolean inJar) throws IOException {
+        long length = Files.size(path);
+        long lastModifiedMillis = seconds(Files.getLastModifiedTime(path));
+
+        ByteBuf content = null;
+        Path file = path;
+        synchronized (this) {
+            if (length <= maxCachedFileBytes && cachedBytes + length <= maxCachedTotalBytes) {
+                byte[] bytes = Files.readAllBytes(path);
+                // A JDK buffer, freed by the GC once the entry is replaced and no response holds a slice of it
+                ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+                buffer.put(bytes).flip();
+                content = Unpooled.unreleasableBuffer(Unpooled.wrappedBuffer(buffer).asReadOnly());
+                // What was read counts, the file may have changed since Files.size
+                length = bytes.length;
+                cachedFiles++;
+                cachedBytes += length;
+            } else if (inJar) {
+                file = extract(path);
+            }
+        }
+
+        String lastModified = DateFormatter.format(new Date(lastModifiedMillis));
+        // Same scheme as nginx: changes whenever the length or the modification time does
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModifiedMillis / 1000) + "\"";
+        return new StaticFile(contentType(key), length, lastModifiedMillis, lastModified, etag, content,
+                content == null ? file.toFile() : null, inJar ? null : path);
+    }
+
+    // Whole seconds, as Last-Modified carries them
+    private static long seconds(FileTime time) {
+        return time.toMillis() / 1000 * 1000;
+    }
+
+    // "/" + the relative path joined with '/', null for anything with a dot file or dot directory in it
+    private static String key(Path relative) {
+        StringBuilder key = new StringBuilder();
+        for (Path name : relative) {
+            String segment = name.toString();
+            if (segment.startsWith(".")) {
+                return null;
+            }
+            key.append('/').append(segment);
+        }
+        return key.toString();
+    }
+
+    private Path extract(Path path) throws IOException {
+        if (extractDir == null) {
+            extractDir = Files.createTempDirectory("netty-static-");
+            extractDir.toFile().deleteOnExit();
+        }
+        Path target = Files.createTempFile(extractDir, "static-", ".bin");
+        // Registered after the directory, so it is deleted before it
+        target.toFile().deleteOnExit();
+        Files.copy(path, target, StandardCopyOption.REPLACE_EXISTING);
+        return target;
+    }
+
+    private static String contentType(String path) {
+        String lowerPath = path.toLowerCase();
+
+        if (lowerPath.endsWith(".html") || lowerPath.endsWith(".htm")) {
+            return "text/html; charset=UTF-8";
+        } else if (lowerPath.endsWith(".css")) {
+            return "text/css; charset=UTF-8";
+        } else if (lowerPath.endsWith(".js")) {
+            return "application/javascript; charset=UTF-8";
+        } else if (lowerPath.endsWith(".json")) {
+            return "application/json; charset=UTF-8";
+        } else if (lowerPath.endsWith(".png")) {
+            return "image/png";
+        } else if (lowerPath.endsWith(".jpg") || lowerPath.endsWith(".jpeg")) {
+            return "image/jpeg";
+        } else if (lowerPath.endsWith(".gif")) {
+            return "image/gif";
+        } else if (lowerPath.endsWith(".svg")) {
+            return "image/svg+xml";
+        } else if (lowerPath.endsWith(".ico")) {
+            return "image/x-icon";
+        } else if (lowerPath.endsWith(".pdf")) {
+            return "application/pdf";
+        } else if (lowerPath.endsWith(".txt")) {
+            return "text/plain; charset=UTF-8";
+        } else if (lowerPath.endsWith(".xml")) {
+            return "application/xml; charset=UTF-8";
+        } else if (lowerPath.endsWith(".zip")) {
+            return "application/zip";
+        } else {
+            return "application/octet-stream";
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.netty.transport;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.netty.config.AppConfig;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollMode;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+
+/**
+ * Event loop groups, server channel and socket options for one transport.
+ * Epoll binds {@code server.boss.threads} listening sockets per port with SO_REUSEPORT, so the kernel spreads
+ * new connections over several acceptor threads; NIO binds one.
+ */
+public class ServerTransport {
+
+    public enum Kind {
+        EPOLL, NIO
+    }
+
+    private final Kind kind;
+    private final int bossThreads;
+    private final int workerThreads;
+    private final int soBacklog;
+    private final WriteBufferWaterMark writeBufferWaterMark;
+
+    private ServerTransport(Kind kind, AppConfig config) {
+        this.kind = kind;
+        // NIO has no SO_REUSEPORT, extra boss threads would sit idle
+        this.bossThreads = kind == Kind.EPOLL ? Math.max(1, config.getServerBossThreads()) : 1;
+        this.workerThreads = Math.max(0, config.getServerWorkerThreads());
+        this.soBacklog = config.getServerSoBacklog();
+        this.writeBufferWaterMark = new WriteBufferWaterMark(config.getServerWriteBufferLowWaterMark(),
+                config.getServerWriteBufferHighWaterMark());
+    }
+
+    /**
+     * Transport from {@code server.transport}; epoll that cannot load its native library falls back to NIO.
+     */
+    public static ServerTransport select(AppConfig config) {
+        String requested = config.getServerTransport().toLowerCase();
+        if (requested.equals("nio")) {
+            return new ServerTransport(Kind.NIO, config);
+        }
+        if (!requested.equals("epoll") && !requested.equals("auto")) {
+            System.err.println("Unknown server.transport '" + requested + "', using auto");
+        }
+        if (Epoll.isAvailable()) {
+            return new ServerTransport(Kind.EPOLL, config);
+        }
+        if (requested.equals("epoll")) {
+            System.err.println("Native epoll not available, falling back to NIO: " + Epoll.unavailabilityCause());
+        }
+        return new ServerTransport(Kind.NIO, config);
+    }
+
+    public Kind kind() {
+        return kind;
+    }
+
+    public EventLoopGroup newBossGroup() {
+        return kind == Kind.EPOLL ? new EpollEventLoopGroup(bossThreads) : new NioEventLoopGroup(bossThreads);
+    }
+
+    public EventLoopGroup newWorkerGroup() {
+        return kind == Kind.EPOLL ? new EpollEventLoopGroup(workerThreads) : new NioEventLoopGroup(workerThreads);
+    }
+
+    public Class<? extends ServerChannel> serverChannelClass() {
+        return kind == Kind.EPOLL ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+    }
+
+    /**
+     * Channel class and socket options; the groups and child handler are set by the caller.
+     */
+    public ServerBootstrap configure(ServerBootstrap bootstrap) {
+        bootstrap.channel(serverChannelClass())
+                .option(ChannelOption.SO_BACKLOG, soBacklog)
+                .option(ChannelOption.SO_REUSEADDR, true)
+                .childOption(ChannelOption.TCP_NODELAY, true)
+                .childOption(ChannelOption.SO_KEEPALIVE, true)
+                .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, writeBufferWaterMark);
+        if (kind == Kind.EPOLL) {
+            bootstrap.option(EpollChannelOption.SO_REUSEPORT, true)
+                    .option(EpollChannelOption.EPOLL_MODE, EpollMode.EDGE_TRIGGERED)
+                    .childOption(EpollChannelOption.EPOLL_MODE, EpollMode.EDGE_TRIGGERED);
+        }
+        return bootstrap;
+    }
+
+    /**
+     * Binds the port once per boss thread (epoll) or once (NIO) and waits for all binds.
+     */
+    public List<ChannelFuture> bind(ServerBootstrap bootstrap, int port) throws InterruptedException {
+        List<ChannelFuture> futures = new ArrayList<>(bossThreads);
+        for (int i = 0; i < bossThreads; i++) {
+            futures.add(bootstrap.bind(port).sync());
+        }
+        return futures;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " (boss threads: " + bossThreads + ", worker threads: "
+                + (workerThreads == 0 ? "default" : String.valueOf(workerThreads)) + ", backlog: " + soBacklog
+                + ", write buffer: " + writeBufferWaterMark.low() + "-" + writeBufferWaterMark.high() + ")";
+    }
+}
@@ -0,0 +1,72 @@
+package com.thonglee.demo.benchmark;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Embedded H2 database with the product/product_category tables of the demo schema.
+ */
+final class BenchmarkDatabase {
+	private BenchmarkDatabase() {
+	}
+
+	static HikariDataSource create(String name, int products) throws SQLException {
+		var config = new HikariConfig();
+		config.setJdbcUrl("jdbc:h2:mem:" + name + ";MODE=MariaDB;DB_CLOSE_DELAY=-1");
+		config.setUsername("sa");
+		config.setMaximumPoolSize(4);
+		var dataSource = new HikariDataSource(config);
+		createSchema(dataSource);
+		insertProducts(dataSource, products);
+		return dataSource;
+	}
+
+	private static void createSchema(DataSource dataSource) throws SQLException {
+		try (var connection = dataSource.getConnection(); var statement = connection.createStatement()) {
+			statement.execute("DROP TABLE IF EXISTS product");
+			statement.execute("DROP TABLE IF EXISTS product_category");
+			statement.execute("CREATE TABLE product_category (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+					+ "category_name VARCHAR(255))");
+			statement.execute("CREATE TABLE product (id BIGINT AUTO_INCREMENT PRIMARY KEY, sku VARCHAR(255), "
+					+ "name VARCHAR(255), description VARCHAR(255), unit_price DECIMAL(13,2), image_url VARCHAR(255), "
+					+ "active BIT, units_in_stock INT, date_created DATETIME(6), last_updated DATETIME(6), "
+					+ "category_id BIGINT NOT NULL REFERENCES product_category(id))");
+			statement.execute("INSERT INTO product_category (category_name) VALUES ('Books'), ('Coffee Mugs'), "
+					+ "('Mouse Pads'), ('Luggage Tags')");
+		}
+	}
+
+	private static void insertProducts(DataSource dataSource, int products) throws SQLException {
+		try (var connection = dataSource.getConnection();
+				var statement = connection.prepareStatement("INSERT INTO product (sku, name, description, "
+						+ "unit_price, image_url, active, units_in_stock, date_created, last_updated, category_id) "
+						+ "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+			connection.setAutoCommit(false);
+			var today = new Date(System.currentTimeMillis());
+			for (int i = 1; i <= products; i++) {
+				statement.setString(1, "SKU-" + i);
+				statement.setString(2, "Product " + i);
+				statement.setString(3, "Description of product " + i + ", long enough to look like real catalog text");
+				statement.setBigDecimal(4, BigDecimal.valueOf(1000 + i % 5000, 2));
+				statement.setString(5, "assets/images/products/product-" + i + ".png");
+				statement.setBoolean(6, true);
+				statement.setInt(7, 100);
+				statement.setDate(8, today);
+				statement.setDate(9, today);
+				statement.setLong(10, 1 + i % 4);
+				statement.addBatch();
+				if (i % 1000 == 0) {
+					statement.executeBatch();
+				}
+			}
+			statement.executeBatch();
+			connection.commit();
+		}
+	}
+}
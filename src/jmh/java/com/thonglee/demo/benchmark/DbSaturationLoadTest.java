@@ -0,0 +1,120 @@
+package com.thonglee.demo.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.Recorder;
+
+/**
+ * Floods a DB endpoint with concurrent clients while one client samples an endpoint that never touches the database,
+ * against a running application:
+ *
+ * <pre>
+ * java -cp target/classes:... com.thonglee.demo.benchmark.DbSaturationLoadTest \
+ *     http://localhost:8080 /my-api/products1 /metrics/db-executor 400 60
+ * </pre>
+ *
+ * Prints the latency percentiles of both endpoints and the status codes seen for the DB endpoint;
+ * the non-DB percentiles should stay flat while the DB endpoint answers 503 once the executor queue is full.
+ */
+public class DbSaturationLoadTest {
+	private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+	private static final long PROBE_INTERVAL_MILLIS = 50;
+
+	public static void main(String[] args) throws InterruptedException {
+		var baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+		var dbPath = args.length > 1 ? args[1] : "/my-api/products1";
+		var probePath = args.length > 2 ? args[2] : "/metrics/db-executor";
+		var clients = args.length > 3 ? Integer.parseInt(args[3]) : 400;
+		var seconds = args.length > 4 ? Integer.parseInt(args[4]) : 60;
+
+		var http = HttpClient.newBuilder()
+				.connectTimeout(Duration.ofSeconds(5))
+				.executor(Executors.newCachedThreadPool())
+				.build();
+		var dbRequest = HttpRequest.newBuilder(URI.create(baseUrl + dbPath)).timeout(REQUEST_TIMEOUT).build();
+		var probeRequest = HttpRequest.newBuilder(URI.create(baseUrl + probePath)).timeout(REQUEST_TIMEOUT).build();
+
+		var dbLatency = new Recorder(3);
+		var probeLatency = new Recorder(3);
+		var dbStatuses = new ConcurrentHashMap<String, AtomicLong>();
+		var probeErrors = new AtomicLong();
+		var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+		var pool = Executors.newFixedThreadPool(clients + 1);
+		for (int i = 0; i < clients; i++) {
+			pool.execute(() -> {
+				while (System.nanoTime() < deadline) {
+					var start = System.nanoTime();
+					var status = send(http, dbRequest);
+					dbLatency.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+					dbStatuses.computeIfAbsent(status, key -> new AtomicLong()).incrementAndGet();
+				}
+			});
+		}
+		pool.execute(() -> {
+			while (System.nanoTime() < deadline) {
+				var start = System.nanoTime();
+				if (!"200".equals(send(http, probeRequest))) {
+					probeErrors.incrementAndGet();
+				}
+				probeLatency.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+				sleep(PROBE_INTERVAL_MILLIS);
+			}
+		});
+
+		pool.shutdown();
+		pool.awaitTermination(seconds + REQUEST_TIMEOUT.toSeconds() + 5, TimeUnit.SECONDS);
+
+		print("db    " + dbPath, dbLatency);
+		System.out.println("      statuses " + counts(dbStatuses));
+		print("no-db " + probePath, probeLatency);
+		System.out.println("      errors " + probeErrors.get());
+	}
+
+	private static String send(HttpClient http, HttpRequest request) {
+		try {
+			return String.valueOf(http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return "interrupted";
+		} catch (Exception e) {
+			return e.getClass().getSimpleName();
+		}
+	}
+
+	private static void print(String label, Recorder recorder) {
+		var histogram = recorder.getIntervalHistogram();
+		System.out.printf("%s: n=%d p50=%.1fms p90=%.1fms p99=%.1fms p999=%.1fms max=%.1fms%n", label,
+				histogram.getTotalCount(), millis(histogram.getValueAtPercentile(50)),
+				millis(histogram.getValueAtPercentile(90)), millis(histogram.getValueAtPercentile(99)),
+				millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+	}
+
+	private static Map<String, Long> counts(Map<String, AtomicLong> counters) {
+		var result = new TreeMap<String, Long>();
+		counters.forEach((key, value) -> result.put(key, value.get()));
+		return result;
+	}
+
+	private static double millis(long micros) {
+		return micros / 1000.0;
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package com.thonglee.demo.benchmark;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thonglee.demo.entity.Product;
+import com.thonglee.demo.entity.Product2;
+import com.thonglee.demo.entity.ProductCategory;
+
+/**
+ * Jackson serialization cost of the product lists returned by ProductController.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProductJsonBenchmark {
+	@Param({ "100", "10000", "100000" })
+	public int rows;
+
+	private final ObjectMapper _objectMapper = new ObjectMapper();
+	private List<Product> _products;
+	private List<Product2> _products2;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		var category = new ProductCategory();
+		category.setId(1L);
+		category.setCategoryName("Books");
+		var today = new Date(System.currentTimeMillis());
+
+		_products = new ArrayList<>(rows);
+		_products2 = new ArrayList<>(rows);
+		for (long i = 1; i <= rows; i++) {
+			var product = new Product();
+			product.setId(i);
+			product.setSku("SKU-" + i);
+			product.setName("Product " + i);
+			product.setDescription("Description of product " + i + ", long enough to look like real catalog text");
+			product.setUnnitPrice(BigDecimal.valueOf(1000 + i % 5000, 2));
+			product.setImageUrl("assets/images/products/product-" + i + ".png");
+			product.setActive(true);
+			product.setUnitsInStock(100);
+			product.setDateCreated(today);
+			product.setLastUpdated(today);
+			product.setCategory(category);
+			_products.add(product);
+
+			var product2 = new Product2();
+			product2.setId(i);
+			product2.setSku(product.getSku());
+			product2.setName(product.getName());
+			product2.setDescription(product.getDescription());
+			product2.setUnnitPrice(product.getUnnitPrice());
+			product2.setImageUrl(product.getImageUrl());
+			product2.setActive(true);
+			product2.setUnitsInStock(100);
+			product2.setDateCreated(today);
+			product2.setLastUpdated(today);
+			_products2.add(product2);
+		}
+	}
+
+	@Benchmark
+	public byte[] serializeProducts() throws JsonProcessingException {
+		return _objectMapper.writeValueAsBytes(_products);
+	}
+
+	@Benchmark
+	public byte[] serializeProducts2() throws JsonProcessingException {
+		return _objectMapper.writeValueAsBytes(_products2);
+	}
+}
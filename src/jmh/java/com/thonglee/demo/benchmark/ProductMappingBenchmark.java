@@ -0,0 +1,104 @@
+package com.thonglee.demo.benchmark;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.dbutils.QueryRunner;
+import org.apache.commons.dbutils.handlers.BeanListHandler;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.thonglee.demo.entity.Product;
+import com.thonglee.demo.entity.Product2;
+import com.thonglee.demo.entity.ProductCategory;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * The three ways ProductController has read the product table:
+ * JPA findAll, commons-dbutils BeanListHandler and a hand-written ResultSet mapping.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProductMappingBenchmark {
+	private static final String SELECT_PRODUCTS = "SELECT * FROM product";
+
+	@Param({ "100", "10000", "100000" })
+	public int rows;
+
+	private HikariDataSource _dataSource;
+	private SessionFactory _sessionFactory;
+
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		_dataSource = BenchmarkDatabase.create("mapping" + rows, rows);
+		var registry = new StandardServiceRegistryBuilder()
+				.applySetting(AvailableSettings.DATASOURCE, _dataSource)
+				.applySetting(AvailableSettings.HBM2DDL_AUTO, "none")
+				.build();
+		_sessionFactory = new MetadataSources(registry)
+				.addAnnotatedClass(Product.class)
+				.addAnnotatedClass(ProductCategory.class)
+				.buildMetadata()
+				.buildSessionFactory();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		_sessionFactory.close();
+		_dataSource.close();
+	}
+
+	@Benchmark
+	public List<Product> jpaFindAll() {
+		// What ProductRepository.findAll runs
+		try (var session = _sessionFactory.openSession()) {
+			return session.createQuery("SELECT p FROM Product p", Product.class).getResultList();
+		}
+	}
+
+	@Benchmark
+	public List<Product2> dbutilsBeanListHandler() throws SQLException {
+		try (var connection = _dataSource.getConnection()) {
+			return new QueryRunner().query(connection, SELECT_PRODUCTS, new BeanListHandler<>(Product2.class));
+		}
+	}
+
+	@Benchmark
+	public List<Product2> handWrittenResultSet() throws SQLException {
+		try (var connection = _dataSource.getConnection();
+				var statement = connection.prepareStatement(SELECT_PRODUCTS);
+				var resultSet = statement.executeQuery()) {
+			var result = new ArrayList<Product2>(rows);
+			while (resultSet.next()) {
+				var product = new Product2();
+				product.setId(resultSet.getLong("id"));
+				product.setSku(resultSet.getString("sku"));
+				product.setName(resultSet.getString("name"));
+				product.setDescription(resultSet.getString("description"));
+				product.setUnnitPrice(resultSet.getBigDecimal("unit_price"));
+				product.setImageUrl(resultSet.getString("image_url"));
+				product.setActive(resultSet.getBoolean("active"));
+				product.setUnitsInStock(resultSet.getInt("units_in_stock"));
+				product.setDateCreated(resultSet.getDate("date_created"));
+				product.setLastUpdated(resultSet.getDate("last_updated"));
+				result.add(product);
+			}
+			return result;
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package com.thonglee.demo.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to first request of the application: starts the given command, polls the URL until it answers 200
+ * and stops the process again, several times. Run it once per build to compare, e.g. after mvn -Pstartup package:
+ *
+ * <pre>
+ * java -cp target/classes:... com.thonglee.demo.benchmark.StartupTimeProbe 5 http://localhost:8080/metrics/startup \
+ *     java -cp "target/classes:target/lib/*" com.thonglee.demo.DemoApplication
+ * java -cp target/classes:... com.thonglee.demo.benchmark.StartupTimeProbe 5 http://localhost:8080/metrics/startup \
+ *     java -XX:SharedArchiveFile=target/app.jsa -Dspring.aot.enabled=true -cp "target/classes:target/lib/*" com.thonglee.demo.DemoApplication
+ * </pre>
+ *
+ * The last response of each start (GET /metrics/startup) also shows the split between context start and first response.
+ */
+public class StartupTimeProbe {
+	private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+	private static final long POLL_INTERVAL_MILLIS = 10;
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 3) {
+			System.err.println("usage: StartupTimeProbe <runs> <url> <command...>");
+			System.exit(2);
+		}
+		var runs = Integer.parseInt(args[0]);
+		var request = HttpRequest.newBuilder(URI.create(args[1])).timeout(Duration.ofSeconds(1)).build();
+		var command = Arrays.asList(args).subList(2, args.length);
+		var http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+		var times = new ArrayList<Long>();
+		for (int run = 1; run <= runs; run++) {
+			var process = new ProcessBuilder(command).redirectErrorStream(true)
+					.redirectOutput(new File(System.getProperty("java.io.tmpdir"), "startup-probe.log")).start();
+			var start = System.nanoTime();
+			try {
+				var body = awaitFirstResponse(http, request, process, start);
+				var millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+				times.add(millis);
+				System.out.printf("run %d: first 200 after %d ms %s%n", run, millis, body);
+			} finally {
+				process.destroy();
+				if (!process.waitFor(30, TimeUnit.SECONDS)) {
+					process.destroyForcibly().waitFor();
+				}
+			}
+		}
+
+		Collections.sort(times);
+		System.out.printf("time to first request over %d runs: min=%d ms median=%d ms max=%d ms%n", runs, times.get(0),
+				times.get(times.size() / 2), times.get(times.size() - 1));
+	}
+
+	private static String awaitFirstResponse(HttpClient http, HttpRequest request, Process process, long start)
+			throws InterruptedException {
+		while (System.nanoTime() - start < STARTUP_TIMEOUT.toNanos()) {
+			if (!process.isAlive()) {
+				throw new IllegalStateException("Application exited with " + process.exitValue() + " before answering");
+			}
+			try {
+				var response = http.send(request, HttpResponse.BodyHandlers.ofString());
+				if (response.statusCode() == 200) {
+					return response.body();
+				}
+			} catch (IOException e) {
+				// not listening yet
+			}
+			Thread.sleep(POLL_INTERVAL_MILLIS);
+		}
+		throw new IllegalStateException("No 200 from " + request.uri() + " within " + STARTUP_TIMEOUT);
+	}
+}
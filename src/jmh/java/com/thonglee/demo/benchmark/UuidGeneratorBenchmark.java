@@ -0,0 +1,31 @@
+package com.thonglee.demo.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.thonglee.demo.entity.TimeOrderedUuids;
+
+/**
+ * Cost of one id with 4 threads: random v4 (what GenerationType.UUID does) against the shared v7 counter.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class UuidGeneratorBenchmark {
+
+	@Benchmark
+	public UUID randomV4() {
+		return UUID.randomUUID();
+	}
+
+	@Benchmark
+	public UUID timeOrderedV7() {
+		return TimeOrderedUuids.next();
+	}
+}
@@ -0,0 +1,98 @@
+package com.thonglee.demo.benchmark;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import com.thonglee.demo.entity.TimeOrderedUuids;
+
+/**
+ * Insert throughput and index size of a BINARY(16) UUID primary key, random v4 against time-ordered v7.
+ * Too long for JMH at 10M rows, so it is a plain program that prints rows/sec per 1M rows:
+ *
+ * <pre>
+ * java -cp target/classes:... com.thonglee.demo.benchmark.UuidKeyInsertBenchmark \
+ *     jdbc:mariadb://localhost:3306/full-stack-ecommerce ecommerceapp ecommerceapp 10000000
+ * </pre>
+ *
+ * Without arguments it runs 1M rows against embedded H2, which only shows the trend.
+ */
+public class UuidKeyInsertBenchmark {
+	private static final int BATCH_SIZE = 1000;
+	private static final int REPORT_EVERY = 1_000_000;
+
+	public static void main(String[] args) throws SQLException {
+		var url = args.length > 0 ? args[0] : "jdbc:h2:mem:uuid;MODE=MariaDB;DB_CLOSE_DELAY=-1";
+		var user = args.length > 1 ? args[1] : "sa";
+		var password = args.length > 2 ? args[2] : "";
+		var rows = args.length > 3 ? Integer.parseInt(args[3]) : 1_000_000;
+
+		try (var connection = DriverManager.getConnection(url, user, password)) {
+			run(connection, "uuid_bench_v4", rows, UUID::randomUUID);
+			run(connection, "uuid_bench_v7", rows, TimeOrderedUuids::next);
+		}
+	}
+
+	private static void run(Connection connection, String table, int rows, Supplier<UUID> ids) throws SQLException {
+		try (var statement = connection.createStatement()) {
+			statement.execute("DROP TABLE IF EXISTS " + table);
+			statement.execute("CREATE TABLE " + table + " (id BINARY(16) NOT NULL PRIMARY KEY, "
+					+ "name VARCHAR(255), units_in_stock INT)");
+		}
+
+		connection.setAutoCommit(false);
+		var start = System.nanoTime();
+		var intervalStart = start;
+		try (var insert = connection.prepareStatement("INSERT INTO " + table + " (id, name, units_in_stock) VALUES (?, ?, ?)")) {
+			for (int i = 1; i <= rows; i++) {
+				insert.setBytes(1, bytes(ids.get()));
+				insert.setString(2, "Product " + i);
+				insert.setInt(3, i % 100);
+				insert.addBatch();
+				if (i % BATCH_SIZE == 0) {
+					insert.executeBatch();
+					connection.commit();
+				}
+				if (i % REPORT_EVERY == 0) {
+					var now = System.nanoTime();
+					System.out.printf("%s rows=%,d rows/sec (last 1M)=%,.0f%n", table, i,
+							REPORT_EVERY / ((now - intervalStart) / 1e9));
+					intervalStart = now;
+				}
+			}
+			insert.executeBatch();
+			connection.commit();
+		}
+		connection.setAutoCommit(true);
+
+		var seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%s total rows=%,d rows/sec=%,.0f%n", table, rows, rows / seconds);
+		printSize(connection, table);
+	}
+
+	private static void printSize(Connection connection, String table) {
+		// MariaDB/MySQL only, H2 has no comparable statistics
+		try (var statement = connection.prepareStatement("SELECT data_length, index_length FROM information_schema.tables "
+				+ "WHERE table_schema = DATABASE() AND table_name = ?")) {
+			statement.setString(1, table);
+			try (var resultSet = statement.executeQuery()) {
+				if (resultSet.next()) {
+					System.out.printf("%s data=%,d bytes index=%,d bytes%n", table, resultSet.getLong(1),
+							resultSet.getLong(2));
+				}
+			}
+		} catch (SQLException e) {
+			System.out.println(table + " size not available: " + e.getMessage());
+		}
+	}
+
+	private static byte[] bytes(UUID uuid) {
+		return ByteBuffer.allocate(16)
+				.putLong(uuid.getMostSignificantBits())
+				.putLong(uuid.getLeastSignificantBits())
+				.array();
+	}
+}
@@ -0,0 +1,117 @@
+package com.thonglee.demo.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Bytes on the wire and server CPU per request of the listing endpoints, against a running application:
+ *
+ * <pre>
+ * java -cp target/classes:... com.thonglee.demo.benchmark.WireCostBenchmark http://localhost:8080 500 \
+ *     /api/products-uuid /api/countries /my-api/products1
+ * </pre>
+ *
+ * Each endpoint is measured three ways: uncompressed, gzip, and gzip revalidated with the ETag of the
+ * previous response (304 while nothing changes). Server CPU comes from GET /metrics/process before and after
+ * each series, so run it against an otherwise idle instance.
+ */
+public class WireCostBenchmark {
+	private static final List<String> DEFAULT_PATHS = List.of("/api/products-uuid", "/api/countries", "/my-api/products1");
+
+	private enum Mode {
+		IDENTITY, GZIP, CONDITIONAL
+	}
+
+	private final HttpClient _http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+	private final ObjectMapper _objectMapper = new ObjectMapper();
+	private final String _baseUrl;
+
+	private WireCostBenchmark(String baseUrl) {
+		_baseUrl = baseUrl;
+	}
+
+	public static void main(String[] args) throws Exception {
+		var baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+		var requests = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+		var paths = args.length > 2 ? List.of(args).subList(2, args.length) : DEFAULT_PATHS;
+
+		var benchmark = new WireCostBenchmark(baseUrl);
+		System.out.printf("%-28s %-12s %6s %14s %14s %12s%n", "endpoint", "mode", "status", "bytes/request",
+				"cpu us/request", "avg ms");
+		for (var path : paths) {
+			for (var mode : Mode.values()) {
+				benchmark.measure(path, mode, Math.max(requests / 10, 1));
+				benchmark.measure(path, mode, requests).print(path, mode);
+			}
+		}
+	}
+
+	private Series measure(String path, Mode mode, int requests) throws IOException, InterruptedException {
+		var builder = HttpRequest.newBuilder(URI.create(_baseUrl + path)).timeout(Duration.ofSeconds(30))
+				.header("Accept-Encoding", mode == Mode.IDENTITY ? "identity" : "gzip");
+		String etag = null;
+		if (mode == Mode.CONDITIONAL) {
+			etag = _http.send(builder.build(), HttpResponse.BodyHandlers.discarding()).headers().firstValue("ETag")
+					.orElse(null);
+			if (etag != null) {
+				builder.header("If-None-Match", etag);
+			}
+		}
+		var request = builder.build();
+
+		var series = new Series();
+		var cpuBefore = processCpuNanos();
+		var start = System.nanoTime();
+		for (int i = 0; i < requests; i++) {
+			// No decompression on the client side: the body length is what travelled over the wire
+			var response = _http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+			series.add(response.statusCode(), response.body().length + headerBytes(response));
+		}
+		series._elapsedNanos = System.nanoTime() - start;
+		series._cpuNanos = processCpuNanos() - cpuBefore;
+		series._requests = requests;
+		return series;
+	}
+
+	private long processCpuNanos() throws IOException, InterruptedException {
+		var response = _http.send(HttpRequest.newBuilder(URI.create(_baseUrl + "/metrics/process")).build(),
+				HttpResponse.BodyHandlers.ofString());
+		return _objectMapper.readTree(response.body()).path("processCpuNanos").asLong();
+	}
+
+	private static long headerBytes(HttpResponse<?> response) {
+		// HTTP/1.1 framing: "name: value\r\n" per header, the status line is left out
+		long bytes = 0;
+		for (var header : response.headers().map().entrySet()) {
+			for (var value : header.getValue()) {
+				bytes += header.getKey().length() + 2 + value.length() + 2;
+			}
+		}
+		return bytes;
+	}
+
+	private static class Series {
+		private long _bytes;
+		private int _lastStatus;
+		private long _elapsedNanos;
+		private long _cpuNanos;
+		private int _requests;
+
+		void add(int status, long bytes) {
+			_lastStatus = status;
+			_bytes += bytes;
+		}
+
+		void print(String path, Mode mode) {
+			System.out.printf("%-28s %-12s %6d %14d %14.1f %12.2f%n", path, mode.name().toLowerCase(), _lastStatus,
+					_bytes / _requests, _cpuNanos / 1000.0 / _requests, _elapsedNanos / 1e6 / _requests);
+		}
+	}
+}
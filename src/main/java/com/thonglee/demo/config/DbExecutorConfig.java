@@ -0,0 +1,43 @@
+package com.thonglee.demo.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.thonglee.demo.service.DbExecutor;
+
+@Configuration
+public class DbExecutorConfig implements WebMvcConfigurer {
+	@Autowired
+	private ThreadPoolTaskExecutor streamingTaskExecutor;
+
+	// Threads default to the Hikari pool size: more threads would only wait for a connection
+	@Bean(destroyMethod = "shutdown")
+	static DbExecutor dbExecutor(@Value("${demo.db-executor.threads:10}") int threads,
+			@Value("${demo.db-executor.queue-capacity:200}") int queueCapacity,
+			@Value("${demo.db-executor.timeout-ms:10000}") long timeoutMillis) {
+		return new DbExecutor(threads, queueCapacity, timeoutMillis);
+	}
+
+	// StreamingResponseBody writes run as long as the client reads, so they get their own pool:
+	// a few slow exports must not hold the threads the short DB calls are queued for
+	@Bean
+	static ThreadPoolTaskExecutor streamingTaskExecutor(@Value("${demo.streaming.threads:4}") int threads,
+			@Value("${demo.streaming.queue-capacity:20}") int queueCapacity) {
+		var executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(threads);
+		executor.setMaxPoolSize(threads);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setThreadNamePrefix("stream-");
+		return executor;
+	}
+
+	@Override
+	public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+		configurer.setTaskExecutor(streamingTaskExecutor);
+	}
+}
@@ -2,16 +2,86 @@ package com.thonglee.demo.config;
 
 import java.io.IOException;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 
+import com.thonglee.demo.filter.LatencyMetricsFilter;
+import com.thonglee.demo.filter.VersionETagFilter;
 import com.thonglee.demo.filter.TransactionFilter;
 import com.thonglee.demo.filter.UserFilter;
+import com.thonglee.demo.service.ReferenceDataVersion;
+import com.thonglee.demo.service.TableVersions;
 
 @Configuration
 public class FilterConfig  {
 	
+	// The ETag versions are counters of this process: another node's writes never bump them, so a node would keep
+	// answering 304 for changed collections. The ETag filters only run on a single node.
+	@Value("${demo.quartz.clustered:false}")
+	private boolean clustered;
+	
+	@Bean
+	LatencyMetricsFilter latencyMetricsFilter() {
+		return new LatencyMetricsFilter();
+	}
+	
+	@Bean // LatencyMetricsFilter: wraps everything, so the histograms include the other filters
+	FilterRegistrationBean<LatencyMetricsFilter> latencyMetricsFilterRegistration(LatencyMetricsFilter filter) {
+		var bean = new FilterRegistrationBean<LatencyMetricsFilter>();
+		bean.setFilter(filter);
+		bean.addUrlPatterns("/*");
+		bean.setOrder(Ordered.HIGHEST_PRECEDENCE);
+		return bean;
+	}
+	
+	@Bean // VersionETagFilter: 304 for unchanged reference data before Spring Data REST runs
+	FilterRegistrationBean<VersionETagFilter> referenceDataETagFilter(ReferenceDataVersion referenceDataVersion) {
+		var bean = new FilterRegistrationBean<VersionETagFilter>();
+		bean.setFilter(new VersionETagFilter(referenceDataVersion::current));
+		bean.addUrlPatterns("/api/countries/*", "/api/states/*");
+		bean.setEnabled(!clustered);
+		return bean;
+	}
+	
+	// /api/productCategories/{id}/products lists product rows, so the category tag includes the product version
+	@Bean // VersionETagFilter: /api/productCategories, including the products association resource
+	FilterRegistrationBean<VersionETagFilter> productCategoryETagFilter(TableVersions tableVersions,
+			ReferenceDataVersion referenceDataVersion) {
+		var bean = new FilterRegistrationBean<VersionETagFilter>();
+		bean.setFilter(new VersionETagFilter(() -> 31 * tableVersions.current(TableVersions.Table.PRODUCT)
+				+ referenceDataVersion.current()));
+		bean.addUrlPatterns("/api/productCategories/*");
+		bean.setEnabled(!clustered);
+		return bean;
+	}
+	
+	// Product JSON embeds its category, so the product listings change with the reference data too.
+	// Both counters only grow, so the combination changes whenever either of them does.
+	@Bean // VersionETagFilter: 304 for unchanged product listings before the DB executor is involved
+	FilterRegistrationBean<VersionETagFilter> productETagFilter(TableVersions tableVersions,
+			ReferenceDataVersion referenceDataVersion) {
+		var bean = new FilterRegistrationBean<VersionETagFilter>();
+		bean.setFilter(new VersionETagFilter(() -> 31 * tableVersions.current(TableVersions.Table.PRODUCT)
+				+ referenceDataVersion.current()));
+		bean.addUrlPatterns("/my-api/products1/*");
+		bean.setEnabled(!clustered);
+		return bean;
+	}
+	
+	@Bean // VersionETagFilter: /api/products-uuid, its search resources return product rows as well
+	FilterRegistrationBean<VersionETagFilter> productUuidETagFilter(TableVersions tableVersions,
+			ReferenceDataVersion referenceDataVersion) {
+		var bean = new FilterRegistrationBean<VersionETagFilter>();
+		bean.setFilter(new VersionETagFilter(() -> 31 * (31 * tableVersions.current(TableVersions.Table.PRODUCT_UUID)
+				+ tableVersions.current(TableVersions.Table.PRODUCT)) + referenceDataVersion.current()));
+		bean.addUrlPatterns("/api/products-uuid/*");
+		bean.setEnabled(!clustered);
+		return bean;
+	}
+	
 	@Bean // UserFile: do first
 	FilterRegistrationBean<UserFilter> userFilter() {
 		var bean = new FilterRegistrationBean<UserFilter>();
@@ -5,15 +5,20 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import com.thonglee.demo.interceptor.JfrHandlerInterceptor;
 import com.thonglee.demo.interceptor.LoggerInterceptor;
 
 @Configuration
 public class InterceptorConfig implements WebMvcConfigurer {
 	@Autowired
 	LoggerInterceptor loggerInterceptor;
+
+	@Autowired
+	JfrHandlerInterceptor jfrHandlerInterceptor;
 	
 	@Override
 	public void addInterceptors(InterceptorRegistry registry) {
 		registry.addInterceptor(loggerInterceptor);
+		registry.addInterceptor(jfrHandlerInterceptor);
 	}
 }
@@ -0,0 +1,49 @@
+package com.thonglee.demo.config;
+
+import java.util.Set;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import com.thonglee.demo.dao.ProductRepository;
+import com.thonglee.demo.dao.StateRepository;
+import com.thonglee.demo.jfr.RepositoryEventInterceptor;
+import com.thonglee.demo.jfr.SqlShapeCapture;
+
+/**
+ * JFR events around the repositories listed here; the controller events come from JfrHandlerInterceptor.
+ */
+@Configuration
+public class JfrConfig {
+	private static final Set<Class<?>> TRACED_REPOSITORIES = Set.of(ProductRepository.class, StateRepository.class);
+
+	// Before the factory bean's afterPropertiesSet, which builds the repository proxy
+	@Bean
+	static BeanPostProcessor repositoryCallEvents() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessBeforeInitialization(Object bean, String beanName) {
+				if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+					factoryBean.addRepositoryFactoryCustomizer(factory -> factory
+							.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) -> {
+								var repositoryInterface = repositoryInformation.getRepositoryInterface();
+								if (TRACED_REPOSITORIES.contains(repositoryInterface)) {
+									// Outermost advice: the event includes the transaction and its flush
+									proxyFactory.addAdvice(0, new RepositoryEventInterceptor(repositoryInterface));
+								}
+							}));
+				}
+				return bean;
+			}
+		};
+	}
+
+	@Bean
+	HibernatePropertiesCustomizer sqlShapeCapture() {
+		return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlShapeCapture());
+	}
+}
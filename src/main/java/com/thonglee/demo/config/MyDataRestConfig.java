@@ -1,11 +1,5 @@
 package com.thonglee.demo.config;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
-
-import org.hibernate.type.EntityType;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
 import org.springframework.data.rest.webmvc.config.RepositoryRestConfigurer;
@@ -18,49 +12,28 @@ import com.thonglee.demo.entity.ProductCategory;
 import com.thonglee.demo.entity.ProductUUID;
 import com.thonglee.demo.entity.State;
 
-import jakarta.persistence.EntityManager;
-
 @Configuration
 public class MyDataRestConfig implements RepositoryRestConfigurer {
-	@Autowired
-	private EntityManager _entityManager;
-	
-//	public MyDataRestConfig(EntityManager entityManager) {
-//		_entityManager = entityManager;
-//	}
+	// Domain types of the exported repositories (/api/...). A fixed list instead of walking the JPA metamodel:
+	// the configurer no longer needs the EntityManager, so it does not pull Hibernate bootstrap forward at startup.
+	// Add the entity here when a repository gets exported.
+	private static final Class<?>[] EXPORTED_DOMAIN_TYPES = { Product.class, ProductCategory.class, ProductUUID.class,
+			Country.class, State.class };
 	
 	@Override
 	public void configureRepositoryRestConfiguration(RepositoryRestConfiguration config, CorsRegistry cors) {
 		HttpMethod[] notAllowedMethods = { HttpMethod.POST, HttpMethod.PUT, HttpMethod.DELETE };
-		disableNotAllowedMethod(Product.class, config, notAllowedMethods);
-		disableNotAllowedMethod(ProductCategory.class, config, notAllowedMethods);
-		disableNotAllowedMethod(ProductUUID.class, config, notAllowedMethods);
-		disableNotAllowedMethod(Country.class, config, notAllowedMethods);
-		disableNotAllowedMethod(State.class, config, notAllowedMethods);
+		for (var domainType : EXPORTED_DOMAIN_TYPES) {
+			disableNotAllowedMethod(domainType, config, notAllowedMethods);
+		}
 		
-		exposeIds(config);
+		config.exposeIdsFor(EXPORTED_DOMAIN_TYPES);
 	}
 
-	private void disableNotAllowedMethod(Class theClass,RepositoryRestConfiguration config, HttpMethod[] notAllowedMethods) {
+	private void disableNotAllowedMethod(Class<?> theClass,RepositoryRestConfiguration config, HttpMethod[] notAllowedMethods) {
 		config.getExposureConfiguration()
 		.forDomainType(theClass)
 		.withItemExposure((metadata, httpMethods) -> httpMethods.disable(notAllowedMethods))
 		.withCollectionExposure((metadata, httpMethods) -> httpMethods.disable(notAllowedMethods));	
 	}
-
-	private void exposeIds(RepositoryRestConfiguration config) {
-		var entities = _entityManager.getMetamodel().getEntities();
-		
-		System.out.println("---------LIST OF ENTITIES-----------");
-		for (var entity : entities) {
-			System.out.println(entity.getName());
-		}
-		
-		List<Class> entityClasses = new ArrayList<>();
-		for (var tempEntityType : entities) {
-			entityClasses.add(tempEntityType.getJavaType());
-		}
-		var domainTypes = entityClasses.toArray(new Class[0]);
-		config.exposeIdsFor(domainTypes);
-	}
 }
@@ -1,21 +1,41 @@
 package com.thonglee.demo.config;
 
+import java.util.Locale;
+import java.util.Map;
+
+import org.quartz.JobDataMap;
 import org.quartz.JobKey;
 import org.quartz.Scheduler;
 import org.quartz.SchedulerException;
 import org.quartz.TriggerKey;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.thonglee.demo.job.CatalogMaintenanceJob;
+import com.thonglee.demo.job.JobClusterView;
+import com.thonglee.demo.job.JobExecutionLayer;
+import com.thonglee.demo.service.CatalogMaintenanceService;
+
 @RestController
 @RequestMapping("/job")
 public class MyJobController {
 	
     @Autowired
     private Scheduler _scheduler;
+    
+    @Autowired
+    private JobExecutionLayer _jobExecutionLayer;
+    
+    @Autowired
+    private JobClusterView _jobClusterView;
+    
+    @Autowired
+    private CatalogMaintenanceService _catalogMaintenanceService;
 	
 	@GetMapping("/state")
 	public String status() throws SchedulerException {
@@ -25,6 +45,38 @@ public class MyJobController {
 		return state.name().toString();
 	}
 	
+	// Run duration, worker queue depth and misfire counts per job
+	@GetMapping("/metrics")
+	public Map<String, Object> metrics() {
+		return _jobExecutionLayer.snapshot();
+	}
+	
+	// This node, the live scheduler nodes and which node fired each job (cluster wide with the JDBC job store)
+	@GetMapping("/cluster")
+	public Map<String, Object> cluster() throws SchedulerException {
+		return _jobClusterView.snapshot();
+	}
+	
+	// Start (or resume) a maintenance run: reprice?parameter=1.05 or stock_sync
+	@PostMapping("/maintenance/{task}")
+	public String startMaintenance(@PathVariable("task") String task,
+			@RequestParam(name = "parameter", required = false) String parameter) throws SchedulerException {
+		var maintenanceTask = CatalogMaintenanceService.Task.valueOf(task.toUpperCase(Locale.ROOT));
+		var jobData = new JobDataMap();
+		jobData.put(CatalogMaintenanceJob.TASK, maintenanceTask.name());
+		if (parameter != null) {
+			jobData.put(CatalogMaintenanceJob.PARAMETER, parameter);
+		}
+		_scheduler.triggerJob(new JobKey("catalogMaintenanceJob", "maintenance"), jobData);
+		return "maintenance " + maintenanceTask + " triggered";
+	}
+	
+	// Chunks done and rows/sec of the maintenance runs in progress on this node
+	@GetMapping("/maintenance")
+	public Map<Long, Map<String, Object>> maintenance() {
+		return _catalogMaintenanceService.progress();
+	}
+	
 	@PostMapping("/shutdown")
 	public String shutdown() throws SchedulerException {
 		_scheduler.shutdown();
@@ -1,8 +1,14 @@
 package com.thonglee.demo.config;
 
+import java.util.Map;
 import java.util.Properties;
 
+import javax.sql.DataSource;
+
+import org.quartz.CronTrigger;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,28 +16,88 @@ import org.springframework.scheduling.quartz.CronTriggerFactoryBean;
 import org.springframework.scheduling.quartz.JobDetailFactoryBean;
 import org.springframework.scheduling.quartz.SchedulerFactoryBean;
 import org.springframework.scheduling.quartz.SpringBeanJobFactory;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import com.thonglee.demo.job.CatalogMaintenanceJob;
+import com.thonglee.demo.job.JobMisfireListener;
 import com.thonglee.demo.job.MyJob;
+import com.thonglee.demo.service.CatalogMaintenanceService;
 
 @Configuration
 public class QuartzConfig {
+	public static final String SCHEDULER_NAME = "demoScheduler";
+	public static final String TABLE_PREFIX = "QRTZ_";
+	
 	@Autowired
     private ApplicationContext applicationContext;
+	
+	@Autowired
+	private JobMisfireListener jobMisfireListener;
+	
+	@Autowired
+	private ObjectProvider<DataSource> dataSource;
+	
+	@Autowired
+	private ObjectProvider<PlatformTransactionManager> transactionManager;
+	
+	// false: in-memory RAMJobStore, every app instance fires every trigger
+	@Value("${demo.quartz.clustered:false}")
+	private boolean clustered;
+	
+	@Value("${demo.quartz.cluster-checkin-interval-ms:7500}")
+	private long clusterCheckinInterval;
+	
+	@Value("${demo.maintenance.stock-sync.cron:0 0 3 * * ?}")
+	private String stockSyncCron;
 
     @Bean
     public SchedulerFactoryBean schedulerFactoryBean() {
         var schedulerFactoryBean = new SchedulerFactoryBean();
         schedulerFactoryBean.setApplicationContext(applicationContext);
         schedulerFactoryBean.setJobFactory(springBeanJobFactory());
-        schedulerFactoryBean.setTriggers(myJobTrigger().getObject());
+        // myJob comes in with its trigger, jobs without a trigger of their own are listed here
+        schedulerFactoryBean.setJobDetails(catalogMaintenanceJobDetail().getObject());
+        schedulerFactoryBean.setTriggers(myJobTrigger().getObject(), stockSyncTrigger().getObject());
+        schedulerFactoryBean.setGlobalTriggerListeners(jobMisfireListener);
         
+        if (clustered) {
+            // Spring switches to its LocalDataSourceJobStore (JDBC, QRTZ_ tables) once a DataSource is set
+            schedulerFactoryBean.setDataSource(dataSource.getObject());
+            // Every node registers the same jobs and triggers at startup and overwrites the stored rows;
+            // a job re-added while its trigger is still stored counts as having no trigger, so all are durable
+            schedulerFactoryBean.setOverwriteExistingJobs(true);
+            // The overwrite runs in one transaction, so it holds the QRTZ_LOCKS row lock while another node fires
+            schedulerFactoryBean.setTransactionManager(transactionManager.getObject());
+        }
         // Limit number of threads for concurrent running
-        Properties quartzProperties = new Properties();     
-        quartzProperties.put("org.quartz.threadPool.threadCount", "3");
-        schedulerFactoryBean.setQuartzProperties(quartzProperties);
+        // (trigger threads only hand work to JobExecutionLayer, so they are never busy for long)
+        schedulerFactoryBean.setQuartzProperties(quartzProperties(3, clustered, clusterCheckinInterval));
         
         return schedulerFactoryBean;
     }
+    
+    /**
+     * Scheduler properties shared by the application and ClusteredSchedulerTests.
+     * Clustered nodes must use the same scheduler name and tables; each one checks in to QRTZ_SCHEDULER_STATE
+     * and takes over the triggers of a node that missed its check-in. A node only acquires triggers while
+     * it has a free thread, so fires spread over the nodes that have capacity.
+     */
+    public static Properties quartzProperties(int threadCount, boolean clustered, long clusterCheckinInterval) {
+        Properties quartzProperties = new Properties();     
+        quartzProperties.put("org.quartz.scheduler.instanceName", SCHEDULER_NAME);
+        quartzProperties.put("org.quartz.threadPool.threadCount", String.valueOf(threadCount));
+        // A fire later than this (ms) counts as a misfire and follows the trigger's misfire instruction
+        quartzProperties.put("org.quartz.jobStore.misfireThreshold", "5000");
+        if (clustered) {
+            // host name + start time, unique per node
+            quartzProperties.put("org.quartz.scheduler.instanceId", "AUTO");
+            quartzProperties.put("org.quartz.jobStore.isClustered", "true");
+            quartzProperties.put("org.quartz.jobStore.clusterCheckinInterval", String.valueOf(clusterCheckinInterval));
+            quartzProperties.put("org.quartz.jobStore.driverDelegateClass", "org.quartz.impl.jdbcjobstore.StdJDBCDelegate");
+            quartzProperties.put("org.quartz.jobStore.tablePrefix", TABLE_PREFIX);
+        }
+        return quartzProperties;
+    }
 
     @Bean
     public SpringBeanJobFactory springBeanJobFactory() {
@@ -46,15 +112,41 @@ public class QuartzConfig {
         jobDetailFactory.setJobClass(MyJob.class);
         jobDetailFactory.setName("myJob");
         jobDetailFactory.setGroup("myJobGroup");
-        //jobDetailFactory.setDurability(true);
+        // Durable so a restarted or second node can overwrite it in the JDBC store
+        jobDetailFactory.setDurability(true);
+        return jobDetailFactory;
+    }
+
+    // Durable, fired by stockSyncTrigger and on demand by MyJobController with the task in the trigger data
+    @Bean
+    public JobDetailFactoryBean catalogMaintenanceJobDetail() {
+        var jobDetailFactory = new JobDetailFactoryBean();
+        jobDetailFactory.setJobClass(CatalogMaintenanceJob.class);
+        jobDetailFactory.setName("catalogMaintenanceJob");
+        jobDetailFactory.setGroup("maintenance");
+        jobDetailFactory.setDurability(true);
         return jobDetailFactory;
     }
+    
+    @Bean
+    public CronTriggerFactoryBean stockSyncTrigger() {
+        var cronTriggerFactoryBean = new CronTriggerFactoryBean();
+        cronTriggerFactoryBean.setJobDetail(catalogMaintenanceJobDetail().getObject());
+        cronTriggerFactoryBean.setJobDataAsMap(Map.of(CatalogMaintenanceJob.TASK, CatalogMaintenanceService.Task.STOCK_SYNC.name()));
+        cronTriggerFactoryBean.setCronExpression(stockSyncCron);
+        cronTriggerFactoryBean.setMisfireInstruction(CronTrigger.MISFIRE_INSTRUCTION_DO_NOTHING);
+        cronTriggerFactoryBean.setName("stockSyncTrigger");
+        cronTriggerFactoryBean.setGroup("maintenance");
+        return cronTriggerFactoryBean;
+    }
 
     @Bean
     public CronTriggerFactoryBean myJobTrigger() {
         var cronTriggerFactoryBean = new CronTriggerFactoryBean();
         cronTriggerFactoryBean.setJobDetail(myJobDetail().getObject());
-        cronTriggerFactoryBean.setCronExpression("0/2 * * * * ?"); // Run every 10 seconds
+        cronTriggerFactoryBean.setCronExpression("0/2 * * * * ?"); // Run every 2 seconds
+        // Missed fires are dropped, the next regular fire time is used instead of a burst of catch-up runs
+        cronTriggerFactoryBean.setMisfireInstruction(CronTrigger.MISFIRE_INSTRUCTION_DO_NOTHING);
         cronTriggerFactoryBean.setName("myJobTrigger");
         cronTriggerFactoryBean.setGroup("myJobGroup");
         return cronTriggerFactoryBean;
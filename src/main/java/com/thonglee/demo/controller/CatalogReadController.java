@@ -0,0 +1,45 @@
+package com.thonglee.demo.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.thonglee.demo.entity.CategorySummary;
+import com.thonglee.demo.entity.CountryView;
+import com.thonglee.demo.entity.ProductView;
+import com.thonglee.demo.service.CatalogReadService;
+import com.thonglee.demo.service.CategorySummaryIndex;
+
+@CrossOrigin("http://localhost:4200")
+@RestController
+@RequestMapping("/my-api/read")
+public class CatalogReadController {
+
+	@Autowired
+	private CatalogReadService _catalogReadService;
+
+	@Autowired
+	private CategorySummaryIndex _categorySummaryIndex;
+
+	@GetMapping("/products")
+	public Page<ProductView> products(Pageable pageable) {
+		return _catalogReadService.fetchProducts(pageable);
+	}
+
+	@GetMapping("/countries")
+	public List<CountryView> countries() {
+		return _catalogReadService.fetchCountriesWithStates();
+	}
+
+	// Product count and price range per category from the in-memory summary, no query per request
+	@GetMapping("/categories/summary")
+	public List<CategorySummary> categorySummaries() {
+		return _categorySummaryIndex.summaries();
+	}
+}
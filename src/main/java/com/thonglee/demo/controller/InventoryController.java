@@ -0,0 +1,56 @@
+package com.thonglee.demo.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.thonglee.demo.service.InventoryReservationService;
+
+@RestController
+@RequestMapping("/my-api/inventory")
+public class InventoryController {
+
+	@Autowired
+	private InventoryReservationService _inventoryReservationService;
+
+	@GetMapping("/{id}")
+	public Map<String, Object> available(@PathVariable("id") Long productId) {
+		return Map.of("productId", productId, "available", _inventoryReservationService.available(productId));
+	}
+
+	// 409 when the stock is short, answered from memory without touching the database
+	@PostMapping("/{id}/reserve")
+	public ResponseEntity<Map<String, Object>> reserve(@PathVariable("id") Long productId,
+			@RequestParam(name = "quantity", defaultValue = "1") int quantity) {
+		var reserved = _inventoryReservationService.reserve(productId, quantity);
+		var body = Map.<String, Object>of("productId", productId, "reserved", reserved);
+		return reserved ? ResponseEntity.ok(body) : ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+	}
+
+	@PostMapping("/{id}/release")
+	public Map<String, Object> release(@PathVariable("id") Long productId,
+			@RequestParam(name = "quantity", defaultValue = "1") int quantity) {
+		_inventoryReservationService.release(productId, quantity);
+		return Map.of("productId", productId, "released", quantity);
+	}
+
+	@ExceptionHandler(EmptyResultDataAccessException.class)
+	public ResponseEntity<String> unknownProduct() {
+		return ResponseEntity.notFound().build();
+	}
+
+	@ExceptionHandler(IllegalArgumentException.class)
+	public ResponseEntity<String> badQuantity(IllegalArgumentException e) {
+		return ResponseEntity.badRequest().body(e.getMessage());
+	}
+}
@@ -0,0 +1,96 @@
+package com.thonglee.demo.controller;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.thonglee.demo.filter.LatencyMetricsFilter;
+import com.thonglee.demo.jfr.SlowOperationMonitor;
+import com.thonglee.demo.service.CategorySummaryIndex;
+import com.thonglee.demo.service.DbExecutor;
+
+@RestController
+@RequestMapping("/metrics")
+public class MetricsController {
+
+	@Autowired
+	private LatencyMetricsFilter _latencyMetricsFilter;
+
+	@Autowired
+	private DbExecutor _dbExecutor;
+
+	@Autowired
+	private SlowOperationMonitor _slowOperationMonitor;
+
+	@Autowired
+	private CategorySummaryIndex _categorySummaryIndex;
+
+	private volatile long _readyUptimeMillis = -1;
+	private volatile long _contextStartMillis = -1;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void applicationReady(ApplicationReadyEvent event) {
+		_readyUptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+		_contextStartMillis = event.getTimeTaken() == null ? -1 : event.getTimeTaken().toMillis();
+	}
+
+	// p50/p90/p99/p999 per handler since startup, plus requests currently in flight
+	@GetMapping("/latency")
+	public Map<String, Object> latency() {
+		var result = new LinkedHashMap<String, Object>();
+		result.put("inFlight", _latencyMetricsFilter.inFlight());
+		result.put("endpoints", _latencyMetricsFilter.snapshot());
+		return result;
+	}
+
+	// JVM start -> context ready -> first response, and whether the AOT / CDS startup build is in use
+	@GetMapping("/startup")
+	public Map<String, Object> startup() {
+		var jvmArguments = ManagementFactory.getRuntimeMXBean().getInputArguments();
+		var result = new LinkedHashMap<String, Object>();
+		result.put("contextStartMillis", _contextStartMillis);
+		result.put("jvmStartToReadyMillis", _readyUptimeMillis);
+		result.put("jvmStartToFirstResponseMillis", _latencyMetricsFilter.firstResponseUptimeMillis());
+		result.put("aot", AotDetector.useGeneratedArtifacts());
+		result.put("cds", jvmArguments.stream().anyMatch(argument -> argument.startsWith("-XX:SharedArchiveFile")));
+		return result;
+	}
+
+	// CPU time of the whole process; sampled before and after a load run to get CPU per request
+	@GetMapping("/process")
+	public Map<String, Object> process() {
+		var result = new LinkedHashMap<String, Object>();
+		if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+			result.put("processCpuNanos", os.getProcessCpuTime());
+		}
+		result.put("uptimeMillis", ManagementFactory.getRuntimeMXBean().getUptime());
+		return result;
+	}
+
+	// Queue depth, rejections and timeouts of the executor behind the product endpoints
+	@GetMapping("/db-executor")
+	public Map<String, Object> dbExecutor() {
+		return _dbExecutor.snapshot();
+	}
+
+	// Repository and controller calls over their JFR thresholds: slowest operations and slowest single calls
+	@GetMapping("/slow-operations")
+	public Map<String, Object> slowOperations(@RequestParam(defaultValue = "10") int limit) {
+		return _slowOperationMonitor.snapshot(Math.max(limit, 1));
+	}
+
+	// Writes applied to the category summary and how many categories the reconciliation had to correct
+	@GetMapping("/category-summary")
+	public Map<String, Object> categorySummary() {
+		return _categorySummaryIndex.stats();
+	}
+}
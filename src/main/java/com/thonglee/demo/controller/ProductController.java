@@ -3,32 +3,38 @@
 // Importing package module to code fragment 
 package com.thonglee.demo.controller; 
   
-import java.net.http.HttpHeaders;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
-import java.util.Iterator;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
-
-import javax.sql.DataSource;
-
-import org.apache.commons.dbutils.QueryRunner;
-import org.apache.commons.dbutils.handlers.BeanListHandler;
-import org.mariadb.jdbc.MariaDbDataSource;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.thonglee.demo.dao.ProductJdbcStreamer;
 import com.thonglee.demo.entity.Product;
-import com.thonglee.demo.entity.Product2;
+import com.thonglee.demo.entity.ProductCursorPage;
+import com.thonglee.demo.entity.ProductImportReport;
+import com.thonglee.demo.service.DbExecutor;
+import com.thonglee.demo.service.ProductBulkImportService;
+import com.thonglee.demo.service.ProductCatalogCache;
+import com.thonglee.demo.service.ProductExportService;
 import com.thonglee.demo.service.ProductService;
-import com.zaxxer.hikari.HikariConfig;
-import com.zaxxer.hikari.HikariDataSource;
 
-import jakarta.servlet.annotation.WebFilter;
-import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid; 
 
 @RestController
@@ -37,110 +43,187 @@ public class ProductController {
 
     @Autowired private ProductService productService; 
     
+    @Autowired private ProductJdbcStreamer productJdbcStreamer; 
+    
+    @Autowired private ProductCatalogCache productCatalogCache; 
+    
+    @Autowired private ProductBulkImportService productBulkImportService; 
+    
+    @Autowired private ProductExportService productExportService; 
+    
+    @Autowired private DbExecutor dbExecutor; 
+    
     @GetMapping("/products1") 
-    public List<Product> fetchproductList() 
+    public CompletableFuture<List<Product>> fetchproductList() 
+    { 
+        return dbExecutor.supply(productService::fetchProductList); 
+    } 
+    
+    @GetMapping("/products1/page") 
+    public CompletableFuture<ProductCursorPage> fetchproductPage(@RequestParam(name = "after", required = false) Long afterId, 
+    		@RequestParam(name = "categoryId", required = false) Long categoryId, 
+    		@RequestParam(name = "size", defaultValue = "50") int size) 
+    { 
+        return dbExecutor.supply(() -> productService.fetchProductPage(afterId, categoryId, size)); 
+    } 
+    
+    @GetMapping("/products1/search") 
+    public CompletableFuture<Page<Product>> searchproducts(@RequestParam("q") String query, Pageable pageable) 
+    { 
+        return dbExecutor.supply(() -> productService.searchProducts(query, pageable)); 
+    } 
+    
+    @GetMapping("/products1/{id}") 
+    public CompletableFuture<ResponseEntity<Product>> fetchproduct(@PathVariable("id") Long productId) 
     { 
-        return productService.fetchProductList(); 
+        return dbExecutor.supply(() -> { 
+            var product = productService.fetchProductById(productId); 
+            return product == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(product); 
+        }); 
+    } 
+    
+    @GetMapping("/products1/category/{categoryId}") 
+    public CompletableFuture<Page<Product>> fetchproductsByCategory(@PathVariable("categoryId") Long categoryId, Pageable pageable) 
+    { 
+        return dbExecutor.supply(() -> productService.fetchProductsByCategory(categoryId, pageable)); 
     } 
     
     @GetMapping("/products2") 
-    public ResponseEntity<List<Product2>> fetchproductList2(HttpServletResponse httpServletResponse) throws SQLException 
-    { 
-    	DriverManager.registerDriver(new org.mariadb.jdbc.Driver());
-    	var connection = DriverManager.getConnection("jdbc:mariadb://localhost:3306/full-stack-ecommerce", "ecommerceapp", "ecommerceapp");
-    	if (connection != null) {
-    		System.out.println("OK Connection");
-    	}
-    	var queryRunner = new QueryRunner();
-    	var resultHandler = new BeanListHandler<>(Product2.class);
-    	var productList = queryRunner.query(connection, "SELECT * FROM product", resultHandler);
-    	for (var product : productList) {
-			System.out.println(product.getName());
-		}
-    	
+    public ResponseEntity<StreamingResponseBody> fetchproductList2() 
+    { 
     	var rh = new org.springframework.http.HttpHeaders();
     	rh.set("ThongHeader", "In god we trust!");
     	
-    	return ResponseEntity
-    			.ok().headers(rh)
-    			.body(productList);
+    	return streamProducts(rh);
     } 
     
     @GetMapping("/products3") 
-    public ResponseEntity<List<Product2>> fetchproductList3(HttpServletResponse httpServletResponse) throws SQLException 
-    { 
-    	DriverManager.registerDriver(new org.mariadb.jdbc.Driver());
-    	var connection = DriverManager.getConnection("jdbc:mariadb://localhost:3306/full-stack-ecommerce", "ecommerceapp", "ecommerceapp");
-    	if (connection != null) {
-    		System.out.println("OK Connection");
-    	}
-    	var queryRunner = new QueryRunner();
-    	var resultHandler = new BeanListHandler<>(Product2.class);
-    	var productList = queryRunner.query(connection, "SELECT * FROM product", resultHandler);
-    	for (var product : productList) {
-    		System.out.println(product.getName());
-    	}
-    	
+    public ResponseEntity<StreamingResponseBody> fetchproductList3() 
+    { 
     	var rh = new org.springframework.http.HttpHeaders();
     	rh.set("ThongHeader", "In god we trust!");
     	
-    	return ResponseEntity
-    			.ok().headers(rh)
-    			.body(productList);
+    	return streamProducts(rh);
     } 
     
     @GetMapping("/products4") 
-    public ResponseEntity<List<Product2>> fetchproductList4(HttpServletResponse httpServletResponse) throws SQLException 
-    { 
-        HikariConfig config = new HikariConfig();
-        config.setJdbcUrl("jdbc:mariadb://localhost:3306/full-stack-ecommerce");
-        config.setUsername("ecommerceapp");
-        config.setPassword("ecommerceapp");
-        try (var dataSource = new HikariDataSource(config)) {
-			var connection = dataSource.getConnection();
-			var queryRunner = new QueryRunner();
-			var resultHandler = new BeanListHandler<>(Product2.class);
-			var productList = queryRunner.query(connection, "SELECT * FROM product", resultHandler);
-			for (var product : productList) {
-				System.out.println(product.getName());
-			}
-			var rh = new org.springframework.http.HttpHeaders();
-			rh.set("ThongHeader", "products4");
-			
-			return ResponseEntity
-					.ok().headers(rh)
-					.body(productList);
-			
-		} catch (Exception e) {
-			return ResponseEntity
-					.internalServerError().body(null);
-		}
+    public ResponseEntity<StreamingResponseBody> fetchproductList4() 
+    { 
+    	var rh = new org.springframework.http.HttpHeaders();
+    	rh.set("ThongHeader", "products4");
+    	
+    	return streamProducts(rh);
     } 
     
+    // All raw JDBC endpoints share the Spring managed pool and stream rows straight to the response,
+    // StreamingResponseBody runs on the bounded MVC async executor (streamingTaskExecutor, DbExecutorConfig)
+    private ResponseEntity<StreamingResponseBody> streamProducts(org.springframework.http.HttpHeaders rh) 
+    {
+    	StreamingResponseBody body = productJdbcStreamer::writeProductsJson;
+    	return ResponseEntity
+    			.ok().headers(rh)
+    			.contentType(MediaType.APPLICATION_JSON)
+    			.body(body);
+    }
+    
     @PostMapping("/products2") 
-    public Product saveproduct(@Valid @RequestBody Product product) 
+    public CompletableFuture<Product> saveproduct(@Valid @RequestBody Product product) 
     { 
-        return productService.saveProduct(product); 
+        return dbExecutor.supply(() -> productService.saveProduct(product)); 
     } 
  
-//    // Update operation 
-//    @PutMapping("/products/{id}") 
-//    public product 
-//    updateproduct(@RequestBody product product, 
-//                     @PathVariable("id") Long productId) 
-//    { 
-//        return productService.updateproduct( 
-//            product, productId); 
-//    } 
-//  
-//    // Delete operation 
-//    @DeleteMapping("/products/{id}") 
-//    public String deleteproductById(@PathVariable("id") 
-//                                       Long productId) 
-//    { 
-//        productService.deleteproductById( 
-//            productId); 
-//  
-//        return "Deleted Successfully"; 
-//    } 
+    // Full catalog export, streamed as CSV or NDJSON, optionally gzipped 
+    @GetMapping("/products/export") 
+    public ResponseEntity<?> exportproducts(@RequestParam(name = "format", defaultValue = "ndjson") String format, 
+    		@RequestParam(name = "gzip", defaultValue = "false") boolean gzip) 
+    { 
+    	ProductExportService.Format exportFormat; 
+    	try { 
+    		exportFormat = ProductExportService.Format.valueOf(format.toUpperCase(Locale.ROOT)); 
+    	} catch (IllegalArgumentException e) { 
+    		return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body("Unsupported format '" + format 
+    				+ "', supported: " + Arrays.stream(ProductExportService.Format.values()) 
+    						.map(f -> f.name().toLowerCase(Locale.ROOT)).collect(Collectors.joining(", "))); 
+    	} 
+    	var rh = new org.springframework.http.HttpHeaders(); 
+    	rh.setContentType(exportFormat == ProductExportService.Format.CSV 
+    			? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON); 
+    	if (gzip) { 
+    		rh.set(org.springframework.http.HttpHeaders.CONTENT_ENCODING, "gzip"); 
+    	} 
+    	
+    	StreamingResponseBody body = out -> { 
+    		if (gzip) { 
+    			try (var gzipOut = new GZIPOutputStream(out, 64 * 1024)) { 
+    				productExportService.export(gzipOut, exportFormat); 
+    			} 
+    		} else { 
+    			productExportService.export(out, exportFormat); 
+    		} 
+    	}; 
+    	return ResponseEntity.ok().headers(rh).body(body); 
+    } 
+    
+    // Bulk import, JSON array / NDJSON / CSV with a header line 
+    @PostMapping(value = "/products/import", consumes = MediaType.APPLICATION_JSON_VALUE) 
+    public ResponseEntity<ProductImportReport> importproductsJson(InputStream body) 
+    { 
+        return importReport(productBulkImportService.importProducts(body, ProductBulkImportService.Format.JSON)); 
+    } 
+    
+    @PostMapping(value = "/products/import", consumes = MediaType.APPLICATION_NDJSON_VALUE) 
+    public ResponseEntity<ProductImportReport> importproductsNdjson(InputStream body) 
+    { 
+        return importReport(productBulkImportService.importProducts(body, ProductBulkImportService.Format.NDJSON)); 
+    } 
+    
+    @PostMapping(value = "/products/import", consumes = "text/csv") 
+    public ResponseEntity<ProductImportReport> importproductsCsv(InputStream body) 
+    { 
+        return importReport(productBulkImportService.importProducts(body, ProductBulkImportService.Format.CSV)); 
+    } 
+    
+    // 400 when the input broke off; the report still lists the chunks committed before that 
+    private static ResponseEntity<ProductImportReport> importReport(ProductImportReport report) 
+    { 
+        return report.error() == null ? ResponseEntity.ok(report) : ResponseEntity.badRequest().body(report); 
+    } 
+ 
+    // Update operation 
+    @PutMapping("/products/{id}") 
+    public CompletableFuture<ResponseEntity<Product>> updateproduct(@Valid @RequestBody Product product, 
+                     @PathVariable("id") Long productId) 
+    { 
+        return dbExecutor.supply(() -> { 
+            var updated = productService.updateProduct(product, productId); 
+            return updated == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(updated); 
+        }); 
+    } 
+  
+    // Delete operation 
+    @DeleteMapping("/products/{id}") 
+    public CompletableFuture<String> deleteproductById(@PathVariable("id") Long productId) 
+    { 
+        return dbExecutor.run(() -> productService.deleteProductById(productId)) 
+                .thenApply(done -> "Deleted Successfully"); 
+    } 
+    
+    @GetMapping("/cache/stats") 
+    public Map<String, Map<String, Object>> cacheStats() 
+    { 
+        return productCatalogCache.stats(); 
+    } 
+    
+    // DB executor queue full: shed the request instead of queueing it on a Tomcat worker 
+    @ExceptionHandler(RejectedExecutionException.class) 
+    public ResponseEntity<String> rejected(RejectedExecutionException e) 
+    { 
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(e.getMessage()); 
+    } 
+    
+    @ExceptionHandler(TimeoutException.class) 
+    public ResponseEntity<String> timedOut(TimeoutException e) 
+    { 
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body("Database call timed out"); 
+    } 
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.thonglee.demo.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.thonglee.demo.service.ReferenceDataVersion;
+
+@RestController
+@RequestMapping("/my-api/reference-data")
+public class ReferenceDataController {
+
+	@Autowired
+	private ReferenceDataVersion _referenceDataVersion;
+
+	@GetMapping("/version")
+	public long version() {
+		return _referenceDataVersion.current();
+	}
+
+	// After editing country/state/product_category outside the app: evict the caches and change all ETags
+	@PostMapping("/invalidate")
+	public long invalidate() {
+		return _referenceDataVersion.invalidate();
+	}
+}
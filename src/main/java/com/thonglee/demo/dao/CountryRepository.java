@@ -1,12 +1,38 @@
 package com.thonglee.demo.dao;
 
+import java.util.List;
+
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.data.rest.core.annotation.RestResource;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
 import com.thonglee.demo.entity.Country;
 
+import jakarta.persistence.QueryHint;
+
 @CrossOrigin("http://localhost:4200")
 @RepositoryRestResource(collectionResourceRel = "countries", path = "countries")
 public interface CountryRepository extends JpaRepository<Country, Integer> {
+	
+	// Served from the query cache, Country rows themselves come from the second-level cache
+	@Override
+	@QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+	Page<Country> findAll(Pageable pageable);
+	
+	@Override
+	@QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+	List<Country> findAll();
+	
+	// Countries and their states in one statement, instead of one states query per country
+	@RestResource(exported = false)
+	@EntityGraph(attributePaths = "states")
+	@Query("SELECT DISTINCT c FROM Country c ORDER BY c.id")
+	List<Country> findAllWithStates();
 }
@@ -0,0 +1,18 @@
+package com.thonglee.demo.dao;
+
+import java.util.Collection;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.stereotype.Repository;
+
+import com.thonglee.demo.entity.MaintenanceRun;
+
+@Repository
+@RepositoryRestResource(exported = false)
+public interface MaintenanceRunRepository extends JpaRepository<MaintenanceRun, Long> {
+	// Latest run of a task with the same parameter that did not finish, it is resumed instead of starting over
+	Optional<MaintenanceRun> findFirstByTaskAndParameterAndStatusInOrderByIdDesc(String task, String parameter,
+			Collection<MaintenanceRun.Status> statuses);
+}
@@ -0,0 +1,72 @@
+package com.thonglee.demo.dao;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Raw JDBC access to the product table on the shared (Spring managed) Hikari pool.
+ * Rows are read from a forward-only cursor and written straight to the response,
+ * so memory stays flat whatever the size of the table.
+ */
+@Repository
+public class ProductJdbcStreamer {
+	private static final String SELECT_PRODUCTS = "SELECT id, sku, name, description, unit_price, image_url, active, "
+			+ "units_in_stock, date_created, last_updated FROM product";
+
+	@Autowired
+	private DataSource _dataSource;
+
+	@Autowired
+	private ObjectMapper _objectMapper;
+
+	@Value("${demo.jdbc.stream-fetch-size:500}")
+	private int _fetchSize;
+
+	/**
+	 * Write every product as a JSON array with the same field names as {@link com.thonglee.demo.entity.Product2}.
+	 */
+	public void writeProductsJson(OutputStream out) throws IOException {
+		try (var connection = _dataSource.getConnection();
+				var statement = connection.prepareStatement(SELECT_PRODUCTS, ResultSet.TYPE_FORWARD_ONLY,
+						ResultSet.CONCUR_READ_ONLY)) {
+			statement.setFetchSize(_fetchSize);
+			try (var resultSet = statement.executeQuery();
+					var generator = _objectMapper.createGenerator(out)) {
+				generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+				generator.writeStartArray();
+				while (resultSet.next()) {
+					writeProduct(generator, resultSet);
+				}
+				generator.writeEndArray();
+			}
+		} catch (SQLException e) {
+			throw new IOException("Cannot stream product table", e);
+		}
+	}
+
+	private void writeProduct(JsonGenerator generator, ResultSet resultSet) throws IOException, SQLException {
+		generator.writeStartObject();
+		generator.writeNumberField("id", resultSet.getLong("id"));
+		generator.writeStringField("sku", resultSet.getString("sku"));
+		generator.writeStringField("name", resultSet.getString("name"));
+		generator.writeStringField("description", resultSet.getString("description"));
+		generator.writeObjectField("unnitPrice", resultSet.getBigDecimal("unit_price"));
+		generator.writeStringField("imageUrl", resultSet.getString("image_url"));
+		generator.writeBooleanField("active", resultSet.getBoolean("active"));
+		generator.writeNumberField("unitsInStock", resultSet.getInt("units_in_stock"));
+		generator.writeObjectField("dateCreated", resultSet.getDate("date_created"));
+		generator.writeObjectField("lastUpdated", resultSet.getDate("last_updated"));
+		generator.writeEndObject();
+	}
+}
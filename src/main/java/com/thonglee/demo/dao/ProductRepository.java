@@ -1,14 +1,25 @@
 package com.thonglee.demo.dao;
 
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 import org.springframework.stereotype.Repository;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
 import com.thonglee.demo.entity.Product;
+import com.thonglee.demo.entity.ProductSummary;
+import com.thonglee.demo.entity.ProductView;
+
+import jakarta.persistence.QueryHint;
 
 @CrossOrigin("http://localhost:4200")
 @Repository
@@ -16,5 +27,30 @@ import com.thonglee.demo.entity.Product;
 public interface ProductRepository extends JpaRepository<Product, Long> {
 	Page<Product> findByCategoryId(@Param("id") Long id, Pageable pageable);	
 	Page<Product> findByNameContaining(@Param("name") String name, Pageable pageable);	
+	
+	// Keyset (seek) pages: "WHERE id > :afterId ORDER BY id" uses the primary key index,
+	// so page 10,000 costs the same as page 1 (no OFFSET scan)
+	@Query("SELECT new com.thonglee.demo.entity.ProductSummary(p.id, p.sku, p.name, p.unnitPrice, p.active, p.unitsInStock, p.category.id) "
+			+ "FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+	List<ProductSummary> findSummariesAfter(@Param("afterId") Long afterId, Limit limit);
+	
+	// Seeks on the category_id index, which carries the primary key as its suffix
+	@Query("SELECT new com.thonglee.demo.entity.ProductSummary(p.id, p.sku, p.name, p.unnitPrice, p.active, p.unitsInStock, p.category.id) "
+			+ "FROM Product p WHERE p.category.id = :categoryId AND p.id > :afterId ORDER BY p.id")
+	List<ProductSummary> findSummariesByCategoryAfter(@Param("categoryId") Long categoryId,
+			@Param("afterId") Long afterId, Limit limit);
+	
+	// One statement per page (plus the count): the category is joined, not loaded per product
+	@Query(value = "SELECT new com.thonglee.demo.entity.ProductView(p.id, p.sku, p.name, p.description, p.unnitPrice, "
+			+ "p.imageUrl, p.active, p.unitsInStock, c.id, c.categoryName) FROM Product p JOIN p.category c",
+			countQuery = "SELECT count(p) FROM Product p")
+	Page<ProductView> findViews(Pageable pageable);
+	
+	// Forward-only cursor over the whole table for exports, must be consumed inside a read-only transaction.
+	// Runs as long as the client reads, so no statement timeout (0) instead of the global 10s
+	@QueryHints({ @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+			@QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+			@QueryHint(name = AvailableHints.HINT_SPEC_QUERY_TIMEOUT, value = "0") })
+	@Query("SELECT p FROM Product p JOIN FETCH p.category ORDER BY p.id")
+	Stream<Product> streamAllWithCategory();
 }
- 
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.thonglee.demo.dao;
 
+import java.util.UUID;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -14,7 +16,7 @@ import com.thonglee.demo.entity.ProductUUID;
 @CrossOrigin("http://localhost:4200")
 @Repository
 @RepositoryRestResource(collectionResourceRel = "product_uuid", path = "products-uuid")
-public interface ProductRepositoryUUID extends JpaRepository<ProductUUID, Long> {
+public interface ProductRepositoryUUID extends JpaRepository<ProductUUID, UUID> {
 	Page<Product> findByCategoryId(@Param("id") Long id, Pageable pageable);	
 }
  
\ No newline at end of file
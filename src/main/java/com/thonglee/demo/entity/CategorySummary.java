@@ -0,0 +1,10 @@
+package com.thonglee.demo.entity;
+
+import java.math.BigDecimal;
+
+/**
+ * Product count and price range of one {@link ProductCategory}; prices are null when no product has one.
+ */
+public record CategorySummary(Long categoryId, String categoryName, int products, int activeProducts,
+		BigDecimal minPrice, BigDecimal maxPrice) {
+}
@@ -1,9 +1,14 @@
 package com.thonglee.demo.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -16,6 +21,9 @@ import java.util.List;
 
 @Entity
 @Table(name="country")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners(ReferenceDataListener.class)
 @Getter
 @Setter
 public class Country {
@@ -31,6 +39,7 @@ public class Country {
     private String name;
 
     @OneToMany(mappedBy = "country")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     //@JsonIgnore
     private List<State> states;
 
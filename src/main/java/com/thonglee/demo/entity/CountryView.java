@@ -0,0 +1,12 @@
+package com.thonglee.demo.entity;
+
+import java.util.List;
+
+/**
+ * Read model of a country and its states, filled from one fetch-joined query.
+ */
+public record CountryView(int id, String code, String name, List<StateView> states) {
+
+	public record StateView(int id, String name) {
+	}
+}
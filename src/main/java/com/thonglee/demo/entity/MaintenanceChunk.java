@@ -0,0 +1,38 @@
+package com.thonglee.demo.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import lombok.Data;
+
+/**
+ * Checkpoint of one finished chunk, written in the same transaction as the chunk's updates.
+ */
+@Entity
+@Table(name = "maintenance_chunk", uniqueConstraints = @UniqueConstraint(columnNames = { "run_id", "chunk_index" }))
+@Data
+public class MaintenanceChunk {
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "id")
+	private Long id;
+
+	@Column(name = "run_id", nullable = false)
+	private Long runId;
+
+	@Column(name = "chunk_index", nullable = false)
+	private int chunkIndex;
+
+	@Column(name = "rows_updated")
+	private int rowsUpdated;
+
+	@Column(name = "completed_at")
+	private Instant completedAt;
+}
@@ -0,0 +1,67 @@
+package com.thonglee.demo.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import lombok.Data;
+
+/**
+ * One catalog maintenance run. The id range is fixed when the run starts, so a resumed run
+ * splits the table into the same chunks; finished chunks are recorded in maintenance_chunk.
+ */
+@Entity
+@Table(name = "maintenance_run")
+@Data
+public class MaintenanceRun {
+	public enum Status {
+		RUNNING, INTERRUPTED, FAILED, COMPLETED
+	}
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "id")
+	private Long id;
+
+	@Column(name = "task", nullable = false)
+	private String task;
+
+	@Column(name = "parameter")
+	private String parameter;
+
+	@Column(name = "min_id")
+	private long minId;
+
+	@Column(name = "max_id")
+	private long maxId;
+
+	@Column(name = "chunk_size")
+	private int chunkSize;
+
+	@Column(name = "total_chunks")
+	private int totalChunks;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "status", nullable = false)
+	private Status status;
+
+	@Column(name = "rows_updated")
+	private long rowsUpdated;
+
+	@Column(name = "started_at")
+	private Instant startedAt;
+
+	@Column(name = "finished_at")
+	private Instant finishedAt;
+
+	// Set by the node that took the run over, see CatalogMaintenanceService
+	@Column(name = "claimed_at")
+	private Instant claimedAt;
+}
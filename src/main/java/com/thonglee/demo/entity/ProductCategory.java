@@ -2,20 +2,30 @@ package com.thonglee.demo.entity;
 
 import java.util.Set;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.ToString;
 
 @Entity
 @Table(name = "product_category")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners(ReferenceDataListener.class)
 @Data
 @Getter
 @Setter
@@ -28,6 +38,9 @@ public class ProductCategory {
 	@Column(name = "category_name")
 	private String categoryName;
 	
+	// Product hashes its category, so hashing the products back would recurse into a set being loaded
 	@OneToMany(cascade = CascadeType.ALL, mappedBy = "category")
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
 	private Set<Product> products;
 }
@@ -0,0 +1,10 @@
+package com.thonglee.demo.entity;
+
+import java.util.List;
+
+/**
+ * One keyset page of products. Pass {@code nextCursor} back as {@code after} to get the next page,
+ * it is null on the last page.
+ */
+public record ProductCursorPage(List<ProductSummary> items, Long nextCursor) {
+}
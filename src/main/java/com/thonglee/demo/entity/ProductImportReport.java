@@ -0,0 +1,20 @@
+package com.thonglee.demo.entity;
+
+import java.util.List;
+
+/**
+ * Result of a bulk product import, one {@link Chunk} per committed (or rolled back) transaction.
+ *
+ * @param error null when the whole input was read; otherwise why reading stopped and after which row.
+ *              The chunks before that point are committed and listed.
+ */
+public record ProductImportReport(long totalRows, long insertedRows, long failedRows, long elapsedMillis,
+		List<Chunk> chunks, String error) {
+
+	/**
+	 * @param firstRow 1-based row number of the first row in the chunk
+	 * @param errors   validation errors ("row N: ...") or the batch failure that rolled the chunk back
+	 */
+	public record Chunk(int index, long firstRow, int rows, int inserted, List<String> errors) {
+	}
+}
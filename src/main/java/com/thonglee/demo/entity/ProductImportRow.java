@@ -0,0 +1,13 @@
+package com.thonglee.demo.entity;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+
+/**
+ * One input row of the bulk product import (JSON array element, NDJSON line or CSV record).
+ */
+public record ProductImportRow(String sku, String name, String description,
+		@JsonAlias("unnitPrice") BigDecimal unitPrice, String imageUrl, Boolean active, Integer unitsInStock,
+		Long categoryId) {
+}
@@ -0,0 +1,11 @@
+package com.thonglee.demo.entity;
+
+import java.math.BigDecimal;
+
+/**
+ * Lightweight read projection of {@link Product} for listing pages.
+ * Leaves out description/image_url and does not load the category entity.
+ */
+public record ProductSummary(Long id, String sku, String name, BigDecimal unitPrice, boolean active,
+		int unitsInStock, Long categoryId) {
+}
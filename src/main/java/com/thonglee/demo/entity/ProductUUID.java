@@ -7,9 +7,8 @@ import java.util.UUID;
 import org.hibernate.annotations.CreationTimestamp;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Column;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -18,11 +17,12 @@ import jakarta.persistence.Table;
 import lombok.Data;
 
 @Entity
+@EntityListeners(ProductUuidListener.class)
 @Table(name = "product_uuid")
 @Data
 public class ProductUUID {
 	@Id
-	@GeneratedValue(strategy = GenerationType.UUID)
+	@TimeOrderedUuid
 	@Column(name = "id")
 	private UUID id;
 	
@@ -0,0 +1,26 @@
+package com.thonglee.demo.entity;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.thonglee.demo.service.TableVersions;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Bumps the product_uuid {@link TableVersions} counter on every JPA write of a {@link ProductUUID}.
+ */
+@Component
+public class ProductUuidListener {
+	@Autowired
+	private TableVersions _tableVersions;
+
+	@PostPersist
+	@PostUpdate
+	@PostRemove
+	public void changed(Object entity) {
+		_tableVersions.bump(TableVersions.Table.PRODUCT_UUID);
+	}
+}
@@ -0,0 +1,10 @@
+package com.thonglee.demo.entity;
+
+import java.math.BigDecimal;
+
+/**
+ * Read model of a product with its category name, filled by one joined query.
+ */
+public record ProductView(Long id, String sku, String name, String description, BigDecimal unitPrice,
+		String imageUrl, boolean active, int unitsInStock, Long categoryId, String categoryName) {
+}
@@ -0,0 +1,27 @@
+package com.thonglee.demo.entity;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.thonglee.demo.service.ReferenceDataVersion;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Bumps {@link ReferenceDataVersion} whenever a reference data entity is written through JPA.
+ * Created by Hibernate through the Spring bean container, so it can be autowired.
+ */
+@Component
+public class ReferenceDataListener {
+	@Autowired
+	private ReferenceDataVersion _referenceDataVersion;
+
+	@PostPersist
+	@PostUpdate
+	@PostRemove
+	public void changed(Object entity) {
+		_referenceDataVersion.bump();
+	}
+}
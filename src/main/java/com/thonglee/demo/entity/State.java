@@ -1,8 +1,14 @@
 package com.thonglee.demo.entity;
 
 import lombok.Data;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -12,6 +18,9 @@ import jakarta.persistence.Table;
 
 @Entity
 @Table(name="state")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners(ReferenceDataListener.class)
 @Data
 public class State {
 
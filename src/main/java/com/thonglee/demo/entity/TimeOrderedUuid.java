@@ -0,0 +1,19 @@
+package com.thonglee.demo.entity;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Generate the id with {@link TimeOrderedUuids} instead of a random (v4) UUID.
+ */
+@IdGeneratorType(TimeOrderedUuidGenerator.class)
+@Retention(RUNTIME)
+@Target({ FIELD, METHOD })
+public @interface TimeOrderedUuid {
+}
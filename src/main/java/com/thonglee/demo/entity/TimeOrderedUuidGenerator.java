@@ -0,0 +1,25 @@
+package com.thonglee.demo.entity;
+
+import java.util.EnumSet;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+/**
+ * Hibernate generator behind {@link TimeOrderedUuid}.
+ */
+public class TimeOrderedUuidGenerator implements BeforeExecutionGenerator {
+
+	@Override
+	public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+			EventType eventType) {
+		return TimeOrderedUuids.next();
+	}
+
+	@Override
+	public EnumSet<EventType> getEventTypes() {
+		return EventTypeSets.INSERT_ONLY;
+	}
+}
@@ -0,0 +1,32 @@
+package com.thonglee.demo.entity;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered (version 7, RFC 9562) UUIDs: 48 bits of Unix milliseconds, then a 12-bit counter, then random bits.
+ * The timestamp and counter come from one atomic value, so ids are strictly increasing across threads of this JVM
+ * and new rows always land at the right edge of the primary key index.
+ */
+public final class TimeOrderedUuids {
+	private static final int COUNTER_BITS = 12;
+
+	// (unix millis << COUNTER_BITS) | counter of the last id handed out
+	private static final AtomicLong LAST = new AtomicLong();
+
+	private TimeOrderedUuids() {
+	}
+
+	public static UUID next() {
+		var now = System.currentTimeMillis() << COUNTER_BITS;
+		// A counter overflow just borrows the next millisecond, ordering is kept
+		var stamp = LAST.updateAndGet(last -> Math.max(last + 1, now));
+
+		var millis = stamp >>> COUNTER_BITS;
+		var counter = stamp & ((1L << COUNTER_BITS) - 1);
+		var mostSignificant = (millis << 16) | (0x7L << 12) | counter;
+		var leastSignificant = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+		return new UUID(mostSignificant, leastSignificant);
+	}
+}
@@ -0,0 +1,45 @@
+package com.thonglee.demo.filter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latency histogram of one handler. Request threads write to a wait-free {@link Recorder};
+ * readers drain it into a cumulative histogram, so recording never takes a lock.
+ */
+public class EndpointLatency {
+	private static final long HIGHEST_MICROS = TimeUnit.HOURS.toMicros(1);
+	private static final int SIGNIFICANT_DIGITS = 3;
+
+	private final Recorder _recorder = new Recorder(HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+	private final Histogram _total = new Histogram(HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+	private Histogram _interval;
+
+	public void record(long durationNanos) {
+		var micros = Math.min(TimeUnit.NANOSECONDS.toMicros(durationNanos), HIGHEST_MICROS);
+		_recorder.recordValue(micros);
+	}
+
+	public synchronized Map<String, Object> snapshot() {
+		_interval = _recorder.getIntervalHistogram(_interval);
+		_total.add(_interval);
+
+		var result = new LinkedHashMap<String, Object>();
+		result.put("count", _total.getTotalCount());
+		result.put("p50Millis", millis(_total.getValueAtPercentile(50)));
+		result.put("p90Millis", millis(_total.getValueAtPercentile(90)));
+		result.put("p99Millis", millis(_total.getValueAtPercentile(99)));
+		result.put("p999Millis", millis(_total.getValueAtPercentile(99.9)));
+		result.put("maxMillis", millis(_total.getMaxValue()));
+		result.put("meanMillis", _total.getTotalCount() == 0 ? 0.0 : _total.getMean() / 1000.0);
+		return result;
+	}
+
+	private static double millis(long micros) {
+		return micros / 1000.0;
+	}
+}
@@ -0,0 +1,115 @@
+package com.thonglee.demo.filter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Records per-handler latency ("GET /my-api/products1/{id}") into {@link EndpointLatency} histograms
+ * and counts requests in flight. The hot path does a timestamp, two map lookups and an atomic add;
+ * only async requests (streaming bodies) allocate a listener to time their completion.
+ */
+public class LatencyMetricsFilter implements Filter {
+	private static final String UNMATCHED = "UNMATCHED";
+
+	private final Map<String, Map<String, EndpointLatency>> _byPattern = new ConcurrentHashMap<>();
+	private final AtomicInteger _inFlight = new AtomicInteger();
+	// JVM uptime when the first response completed, -1 until then
+	private final AtomicLong _firstResponseUptimeMillis = new AtomicLong(-1);
+
+	@Override
+	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+			throws IOException, ServletException {
+		var start = System.nanoTime();
+		_inFlight.incrementAndGet();
+		var async = false;
+		try {
+			chain.doFilter(request, response);
+			if (request.isAsyncStarted()) {
+				async = true;
+				request.getAsyncContext().addListener(new CompletionListener(this, (HttpServletRequest) request, start));
+			}
+		} finally {
+			if (!async) {
+				complete((HttpServletRequest) request, start);
+			}
+		}
+	}
+
+	public int inFlight() {
+		return _inFlight.get();
+	}
+
+	/**
+	 * Time to first request: JVM start until the first response completed, or -1 before that.
+	 */
+	public long firstResponseUptimeMillis() {
+		return _firstResponseUptimeMillis.get();
+	}
+
+	public Map<String, Object> snapshot() {
+		var result = new TreeMap<String, Object>();
+		_byPattern.forEach((pattern, byMethod) -> byMethod
+				.forEach((method, latency) -> result.put(method + " " + pattern, latency.snapshot())));
+		return result;
+	}
+
+	private void complete(HttpServletRequest request, long start) {
+		var duration = System.nanoTime() - start;
+		_inFlight.decrementAndGet();
+		latency(request).record(duration);
+		if (_firstResponseUptimeMillis.get() < 0) {
+			_firstResponseUptimeMillis.compareAndSet(-1, ManagementFactory.getRuntimeMXBean().getUptime());
+		}
+	}
+
+	private EndpointLatency latency(HttpServletRequest request) {
+		// The mapping pattern is a constant string of the handler, so the key costs nothing to build
+		var pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		var key = pattern instanceof String ? (String) pattern : UNMATCHED;
+		var byMethod = _byPattern.get(key);
+		if (byMethod == null) {
+			byMethod = _byPattern.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+		}
+		var latency = byMethod.get(request.getMethod());
+		if (latency == null) {
+			latency = byMethod.computeIfAbsent(request.getMethod(), k -> new EndpointLatency());
+		}
+		return latency;
+	}
+
+	private record CompletionListener(LatencyMetricsFilter filter, HttpServletRequest request, long start)
+			implements AsyncListener {
+		@Override
+		public void onComplete(AsyncEvent event) {
+			filter.complete(request, start);
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) {
+		}
+
+		@Override
+		public void onError(AsyncEvent event) {
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) {
+		}
+	}
+}
@@ -2,6 +2,9 @@ package com.thonglee.demo.filter;
 
 import java.io.IOException;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.FilterConfig;
@@ -10,6 +13,8 @@ import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
 
 public class TransactionFilter implements Filter  {
+	private static final Logger LOGGER = LoggerFactory.getLogger(TransactionFilter.class);
+	
 	@Override
 	public void init(FilterConfig filterConfig) throws ServletException {
 		System.out.println("init TransactionFilter");
@@ -18,7 +23,7 @@ public class TransactionFilter implements Filter  {
 	@Override
 	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
 			throws IOException, ServletException {
-		System.out.println("TransactionFilter: doFilter");
+		LOGGER.trace("TransactionFilter: doFilter");
 		
 		chain.doFilter(request, response);
 	}
@@ -0,0 +1,136 @@
+package com.thonglee.demo.filter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.function.LongSupplier;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Weak ETags for listing endpoints, derived from a version counter of the tables behind them
+ * (ReferenceDataVersion, TableVersions) plus a hash of the URL and Accept header instead of a hash of the body.
+ * An unchanged collection is answered with 304 before any repository or cache is touched.
+ * Weak because the same tag covers the gzip and the identity encoding; Tomcat does not compress
+ * responses that carry a strong ETag.
+ * The tag is only sent with 2xx and 304 responses: an error page must not be cached under the collection's tag.
+ * The counters only see writes of this process, so FilterConfig turns the filter off with demo.quartz.clustered=true.
+ */
+public class VersionETagFilter implements Filter {
+	private final LongSupplier _version;
+
+	public VersionETagFilter(LongSupplier version) {
+		_version = version;
+	}
+
+	@Override
+	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+			throws IOException, ServletException {
+		var httpRequest = (HttpServletRequest) request;
+		var httpResponse = (HttpServletResponse) response;
+		var method = httpRequest.getMethod();
+		if (!"GET".equals(method) && !"HEAD".equals(method)) {
+			chain.doFilter(request, response);
+			return;
+		}
+
+		var etag = etag(httpRequest);
+		if (matches(httpRequest.getHeader("If-None-Match"), etag)) {
+			setValidators(httpResponse, etag);
+			httpResponse.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+		var etagResponse = new ETagResponse(httpResponse, etag);
+		chain.doFilter(request, etagResponse);
+		// Bodiless responses; async ones add the tag when their body is written on the async dispatch
+		if (!request.isAsyncStarted()) {
+			etagResponse.applyValidators();
+		}
+	}
+
+	private static void setValidators(HttpServletResponse response, String etag) {
+		response.setHeader("ETag", etag);
+		// Clients may keep the body but must revalidate, which costs only this filter
+		response.setHeader("Cache-Control", "no-cache");
+	}
+
+	private String etag(HttpServletRequest request) {
+		var hash = 31 * request.getRequestURI().hashCode();
+		if (request.getQueryString() != null) {
+			hash = 31 * (hash + request.getQueryString().hashCode());
+		}
+		if (request.getHeader("Accept") != null) {
+			hash = 31 * (hash + request.getHeader("Accept").hashCode());
+		}
+		return "W/\"" + Long.toHexString(_version.getAsLong()) + "-" + Integer.toHexString(hash) + "\"";
+	}
+
+	private static boolean matches(String ifNoneMatch, String etag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		// If-None-Match uses the weak comparison: W/ prefixes are ignored on both sides
+		var opaqueTag = opaqueTag(etag);
+		for (var candidate : ifNoneMatch.split(",")) {
+			var trimmed = candidate.trim();
+			if (opaqueTag(trimmed).equals(opaqueTag) || trimmed.equals("*")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String opaqueTag(String etag) {
+		return etag.startsWith("W/") ? etag.substring(2) : etag;
+	}
+
+	/**
+	 * Adds the validators once the status is known: when the body is first written or flushed, or when the
+	 * chain returns. The servlet API cannot remove a header, so they are never set on a non-2xx response.
+	 */
+	private static class ETagResponse extends HttpServletResponseWrapper {
+		private final String _etag;
+		private boolean _applied;
+
+		ETagResponse(HttpServletResponse response, String etag) {
+			super(response);
+			_etag = etag;
+		}
+
+		void applyValidators() {
+			if (_applied || isCommitted()) {
+				return;
+			}
+			_applied = true;
+			var status = getStatus();
+			if (status >= 200 && status < 300) {
+				setValidators((HttpServletResponse) getResponse(), _etag);
+			}
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			applyValidators();
+			return super.getOutputStream();
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			applyValidators();
+			return super.getWriter();
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			applyValidators();
+			super.flushBuffer();
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package com.thonglee.demo.interceptor;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.thonglee.demo.jfr.ControllerCallEvent;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Records a {@link ControllerCallEvent} per handler invocation. The event is kept in a request attribute, so a
+ * CompletableFuture handler is measured up to the async dispatch that writes its response.
+ */
+@Component
+public class JfrHandlerInterceptor implements AsyncHandlerInterceptor {
+	private static final String EVENT_ATTRIBUTE = JfrHandlerInterceptor.class.getName() + ".event";
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		// Called again on the async dispatch, the event of the first pass keeps running
+		if (request.getAttribute(EVENT_ATTRIBUTE) == null) {
+			var event = new ControllerCallEvent();
+			if (event.isEnabled()) {
+				event.begin();
+				request.setAttribute(EVENT_ATTRIBUTE, event);
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+		if (!(request.getAttribute(EVENT_ATTRIBUTE) instanceof ControllerCallEvent event)) {
+			return;
+		}
+		request.removeAttribute(EVENT_ATTRIBUTE);
+		event.end();
+		if (event.shouldCommit()) {
+			event.handler = handler instanceof HandlerMethod method
+					? method.getBeanType().getSimpleName() + "." + method.getMethod().getName()
+					: handler.getClass().getSimpleName();
+			event.httpMethod = request.getMethod();
+			var pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+			event.pattern = pattern == null ? request.getRequestURI() : pattern.toString();
+			event.status = ex != null && response.getStatus() < 400 ? 500 : response.getStatus();
+			event.commit();
+		}
+	}
+}
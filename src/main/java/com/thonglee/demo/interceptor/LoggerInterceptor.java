@@ -1,5 +1,7 @@
 package com.thonglee.demo.interceptor;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.ModelAndView;
@@ -9,11 +11,14 @@ import jakarta.servlet.http.HttpServletResponse;
 
 @Component
 public class LoggerInterceptor implements HandlerInterceptor {
+	// Per-request lines only at TRACE, latency per handler is recorded by LatencyMetricsFilter
+	private static final Logger LOGGER = LoggerFactory.getLogger(LoggerInterceptor.class);
+	
 	@Override
 	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
 			throws Exception {
 		//response.sendError(403, "HHAHAHA");
-		System.out.println("---------preHandle");
+		LOGGER.trace("---------preHandle");
 		return true;
 	}
 	
@@ -21,13 +26,13 @@ public class LoggerInterceptor implements HandlerInterceptor {
 	public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
 			ModelAndView modelAndView) throws Exception {
 		//response.sendError(403, "YOLO");
-		System.out.println("---------postHandle");
+		LOGGER.trace("---------postHandle");
 	}
 	
 	@Override
 	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex)
 			throws Exception {
-		System.out.println("---------afterCompletion");
+		LOGGER.trace("---------afterCompletion");
 	}
 	
 
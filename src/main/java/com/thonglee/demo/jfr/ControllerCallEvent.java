@@ -0,0 +1,34 @@
+package com.thonglee.demo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One controller method, from the handler's start to the completed response (async dispatch included).
+ */
+@Name("com.thonglee.demo.ControllerCall")
+@Label("Controller Call")
+@Category({ "Demo", "Web" })
+@Description("Spring MVC handler invocation")
+@Enabled(true)
+@Threshold("50 ms")
+@StackTrace(false)
+public class ControllerCallEvent extends Event {
+	@Label("Handler")
+	public String handler;
+
+	@Label("HTTP Method")
+	public String httpMethod;
+
+	@Label("Pattern")
+	public String pattern;
+
+	@Label("Status")
+	public int status;
+}
@@ -0,0 +1,42 @@
+package com.thonglee.demo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One Spring Data repository method call. Calls under the threshold are dropped before any field is filled.
+ */
+@Name("com.thonglee.demo.RepositoryCall")
+@Label("Repository Call")
+@Category({ "Demo", "Database" })
+@Description("Spring Data repository invocation with row count and SQL shape")
+@Enabled(true)
+@Threshold("20 ms")
+@StackTrace(false)
+public class RepositoryCallEvent extends Event {
+	@Label("Repository")
+	public String repository;
+
+	@Label("Method")
+	public String method;
+
+	@Label("Rows")
+	@Description("Rows returned, -1 when unknown (streams)")
+	public long rows;
+
+	@Label("Statements")
+	public int statements;
+
+	@Label("SQL Shape")
+	@Description("First SQL statement with bind parameters, literals are never part of it")
+	public String sqlShape;
+
+	@Label("Failed")
+	public boolean failed;
+}
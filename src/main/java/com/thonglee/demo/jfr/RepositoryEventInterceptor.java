@@ -0,0 +1,72 @@
+package com.thonglee.demo.jfr;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.BaseStream;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.data.domain.Slice;
+
+/**
+ * Wraps every method of one repository proxy in a {@link RepositoryCallEvent}.
+ * With the event disabled this is a flag check; row count and SQL shape are only looked at for calls
+ * that pass the threshold.
+ */
+public class RepositoryEventInterceptor implements MethodInterceptor {
+	private final String _repository;
+
+	public RepositoryEventInterceptor(Class<?> repositoryInterface) {
+		_repository = repositoryInterface.getSimpleName();
+	}
+
+	@Override
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		var event = new RepositoryCallEvent();
+		if (!event.isEnabled()) {
+			return invocation.proceed();
+		}
+
+		var capture = SqlShapeCapture.begin();
+		Object result = null;
+		var failed = true;
+		event.begin();
+		try {
+			result = invocation.proceed();
+			failed = false;
+			return result;
+		} finally {
+			event.end();
+			SqlShapeCapture.end(capture);
+			if (event.shouldCommit()) {
+				event.repository = _repository;
+				event.method = invocation.getMethod().getName();
+				event.rows = failed ? 0 : rows(result);
+				event.statements = capture.statements();
+				event.sqlShape = capture.firstSql();
+				event.failed = failed;
+				event.commit();
+			}
+		}
+	}
+
+	private static long rows(Object result) {
+		if (result == null) {
+			return 0;
+		}
+		if (result instanceof Collection<?> collection) {
+			return collection.size();
+		}
+		if (result instanceof Slice<?> slice) {
+			return slice.getNumberOfElements();
+		}
+		if (result instanceof Optional<?> optional) {
+			return optional.isPresent() ? 1 : 0;
+		}
+		if (result instanceof BaseStream<?, ?> || result instanceof Iterable<?>) {
+			// Rows are read while the caller consumes it
+			return -1;
+		}
+		return 1;
+	}
+}
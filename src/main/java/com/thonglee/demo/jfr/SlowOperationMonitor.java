@@ -0,0 +1,174 @@
+package com.thonglee.demo.jfr;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * In-process JFR stream over the repository and controller events. Every event that passes its threshold
+ * is folded into per-operation totals and a bounded set of the slowest single calls (GET /metrics/slow-operations).
+ * Only calls over the threshold ever reach the stream, everything else stays a flag check on the calling thread.
+ */
+@Component
+public class SlowOperationMonitor {
+	private static final Logger LOGGER = LoggerFactory.getLogger(SlowOperationMonitor.class);
+
+	private static final String REPOSITORY_EVENT = "com.thonglee.demo.RepositoryCall";
+	private static final String CONTROLLER_EVENT = "com.thonglee.demo.ControllerCall";
+
+	@Value("${demo.jfr.enabled:true}")
+	private boolean _enabled;
+
+	@Value("${demo.jfr.repository-threshold-ms:20}")
+	private long _repositoryThresholdMillis;
+
+	@Value("${demo.jfr.controller-threshold-ms:50}")
+	private long _controllerThresholdMillis;
+
+	@Value("${demo.jfr.top-n:50}")
+	private int _topN;
+
+	private final Map<String, OperationStats> _operations = new ConcurrentHashMap<>();
+	// Min-heap on duration: the head is the fastest of the kept samples and the first to go
+	private final PriorityQueue<Sample> _slowest = new PriorityQueue<>(Comparator.comparingLong(Sample::nanos));
+	private final AtomicLong _events = new AtomicLong();
+	private RecordingStream _stream;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public synchronized void start() {
+		if (!_enabled || _stream != null) {
+			return;
+		}
+		_stream = new RecordingStream();
+		_stream.enable(REPOSITORY_EVENT).withThreshold(Duration.ofMillis(_repositoryThresholdMillis)).withoutStackTrace();
+		_stream.enable(CONTROLLER_EVENT).withThreshold(Duration.ofMillis(_controllerThresholdMillis)).withoutStackTrace();
+		// Events are consumed as they arrive, the stream's own buffer only bridges a slow consumer
+		_stream.setMaxAge(Duration.ofMinutes(1));
+		_stream.onEvent(REPOSITORY_EVENT, this::onRepositoryCall);
+		_stream.onEvent(CONTROLLER_EVENT, this::onControllerCall);
+		_stream.startAsync();
+		LOGGER.info("JFR slow operation stream started (repository >= {} ms, controller >= {} ms)",
+				_repositoryThresholdMillis, _controllerThresholdMillis);
+	}
+
+	@PreDestroy
+	public synchronized void stop() {
+		if (_stream != null) {
+			_stream.close();
+			_stream = null;
+		}
+	}
+
+	/**
+	 * Operations ordered by their slowest call, and the slowest single calls, at most {@code limit} of each.
+	 */
+	public Map<String, Object> snapshot(int limit) {
+		var operations = _operations.entrySet().stream()
+				.sorted(Comparator.comparingLong((Map.Entry<String, OperationStats> entry) -> entry.getValue()._maxNanos.get())
+						.reversed())
+				.limit(limit).map(entry -> entry.getValue().toMap(entry.getKey())).toList();
+
+		List<Sample> slowest;
+		synchronized (_slowest) {
+			slowest = new ArrayList<>(_slowest);
+		}
+		slowest.sort(Comparator.comparingLong(Sample::nanos).reversed());
+
+		var result = new LinkedHashMap<String, Object>();
+		result.put("streaming", _stream != null);
+		result.put("repositoryThresholdMillis", _repositoryThresholdMillis);
+		result.put("controllerThresholdMillis", _controllerThresholdMillis);
+		result.put("events", _events.get());
+		result.put("operations", operations);
+		result.put("slowest", slowest.stream().limit(limit).map(Sample::toMap).toList());
+		return result;
+	}
+
+	private void onRepositoryCall(RecordedEvent event) {
+		var operation = "repository " + event.getString("repository") + "." + event.getString("method");
+		var details = new LinkedHashMap<String, Object>();
+		details.put("rows", event.getLong("rows"));
+		details.put("statements", event.getInt("statements"));
+		details.put("sqlShape", event.getString("sqlShape"));
+		details.put("failed", event.getBoolean("failed"));
+		record(operation, event, details);
+	}
+
+	private void onControllerCall(RecordedEvent event) {
+		var operation = "controller " + event.getString("httpMethod") + " " + event.getString("pattern");
+		var details = new LinkedHashMap<String, Object>();
+		details.put("handler", event.getString("handler"));
+		details.put("status", event.getInt("status"));
+		record(operation, event, details);
+	}
+
+	private void record(String operation, RecordedEvent event, Map<String, Object> details) {
+		var nanos = event.getDuration().toNanos();
+		_events.incrementAndGet();
+		_operations.computeIfAbsent(operation, key -> new OperationStats()).add(nanos);
+
+		var sample = new Sample(operation, nanos, event.getStartTime(), details);
+		synchronized (_slowest) {
+			if (_slowest.size() < _topN) {
+				_slowest.add(sample);
+			} else if (_slowest.peek().nanos() < nanos) {
+				_slowest.poll();
+				_slowest.add(sample);
+			}
+		}
+	}
+
+	private static class OperationStats {
+		private final LongAdder _count = new LongAdder();
+		private final LongAdder _totalNanos = new LongAdder();
+		private final LongAccumulator _maxNanos = new LongAccumulator(Math::max, 0);
+
+		void add(long nanos) {
+			_count.increment();
+			_totalNanos.add(nanos);
+			_maxNanos.accumulate(nanos);
+		}
+
+		Map<String, Object> toMap(String operation) {
+			var count = _count.sum();
+			var result = new LinkedHashMap<String, Object>();
+			result.put("operation", operation);
+			result.put("slowCalls", count);
+			result.put("avgMillis", count == 0 ? 0 : Math.round(_totalNanos.sum() / 1e3 / count) / 1e3);
+			result.put("maxMillis", Math.round(_maxNanos.get() / 1e3) / 1e3);
+			result.put("totalMillis", Math.round(_totalNanos.sum() / 1e6));
+			return result;
+		}
+	}
+
+	private record Sample(String operation, long nanos, Instant startTime, Map<String, Object> details) {
+		Map<String, Object> toMap() {
+			var result = new LinkedHashMap<String, Object>();
+			result.put("operation", operation);
+			result.put("millis", Math.round(nanos / 1e3) / 1e3);
+			result.put("start", startTime.toString());
+			result.putAll(details);
+			return result;
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package com.thonglee.demo.jfr;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate statement inspector that hands the SQL of the running repository call to its {@link RepositoryCallEvent}.
+ * Hibernate's SQL carries bind parameters, never literals, so it already is the shape of the statement.
+ * Costs one ThreadLocal read per statement when no call is being recorded.
+ */
+public class SqlShapeCapture implements StatementInspector {
+	private static final int MAX_SQL_LENGTH = 500;
+	private static final ThreadLocal<Capture> CURRENT = new ThreadLocal<>();
+
+	@Override
+	public String inspect(String sql) {
+		var capture = CURRENT.get();
+		if (capture != null) {
+			capture._statements++;
+			if (capture._firstSql == null) {
+				capture._firstSql = sql.length() > MAX_SQL_LENGTH ? sql.substring(0, MAX_SQL_LENGTH) : sql;
+			}
+		}
+		return sql;
+	}
+
+	static Capture begin() {
+		var capture = new Capture(CURRENT.get());
+		CURRENT.set(capture);
+		return capture;
+	}
+
+	static void end(Capture capture) {
+		if (capture._outer == null) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set(capture._outer);
+		}
+	}
+
+	/**
+	 * Statements of one repository call; a nested call gets its own and restores the outer one when done.
+	 */
+	static final class Capture {
+		private final Capture _outer;
+		private int _statements;
+		private String _firstSql;
+
+		private Capture(Capture outer) {
+			_outer = outer;
+		}
+
+		int statements() {
+			return _statements;
+		}
+
+		String firstSql() {
+			return _firstSql;
+		}
+	}
+}
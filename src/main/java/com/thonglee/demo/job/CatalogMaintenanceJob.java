@@ -0,0 +1,43 @@
+package com.thonglee.demo.job;
+
+import java.util.Locale;
+
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.thonglee.demo.service.CatalogMaintenanceService;
+
+/**
+ * Quartz entry point of {@link CatalogMaintenanceService}. The task and its parameter come from the
+ * trigger's job data ({@link #TASK}, {@link #PARAMETER}), the run itself goes to the job workers.
+ * execute() returns right away, so @DisallowConcurrentExecution only spaces out the fires; the service
+ * claims the run in the database, which keeps a second node off a run that is still going.
+ */
+@Component
+@DisallowConcurrentExecution
+public class CatalogMaintenanceJob implements Job {
+	public static final String TASK = "task";
+	public static final String PARAMETER = "parameter";
+
+	@Autowired
+	private JobExecutionLayer jobExecutionLayer;
+
+	@Autowired
+	private CatalogMaintenanceService catalogMaintenanceService;
+
+	@Override
+	public void execute(JobExecutionContext context) throws JobExecutionException {
+		var jobData = context.getMergedJobDataMap();
+		var taskName = jobData.getString(TASK);
+		if (taskName == null) {
+			throw new JobExecutionException("No maintenance task in the job data");
+		}
+		var task = CatalogMaintenanceService.Task.valueOf(taskName.toUpperCase(Locale.ROOT));
+		var parameter = jobData.getString(PARAMETER);
+		jobExecutionLayer.submit(context.getJobDetail().getKey(), () -> catalogMaintenanceService.run(task, parameter));
+	}
+}
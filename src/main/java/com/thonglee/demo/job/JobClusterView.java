@@ -0,0 +1,108 @@
+package com.thonglee.demo.job;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.thonglee.demo.config.QuartzConfig;
+
+/**
+ * Which scheduler node is alive and which node fires which job. In clustered mode this is read from the
+ * Quartz tables, so every node answers for the whole cluster; with the in-memory store only the local node is known.
+ */
+@Component
+public class JobClusterView {
+	// Quartz waits this long past a missed check-in before it recovers a node's triggers
+	private static final long CHECKIN_GRACE_MILLIS = 7500;
+	private static final String SELECT_NODES = "SELECT INSTANCE_NAME, LAST_CHECKIN_TIME, CHECKIN_INTERVAL FROM "
+			+ QuartzConfig.TABLE_PREFIX + "SCHEDULER_STATE WHERE SCHED_NAME = ? ORDER BY INSTANCE_NAME";
+	private static final String SELECT_FIRED = "SELECT INSTANCE_NAME, JOB_GROUP, JOB_NAME, TRIGGER_NAME, FIRED_TIME, STATE FROM "
+			+ QuartzConfig.TABLE_PREFIX + "FIRED_TRIGGERS WHERE SCHED_NAME = ? ORDER BY FIRED_TIME";
+
+	@Autowired
+	private Scheduler _scheduler;
+
+	@Autowired
+	private JdbcTemplate _jdbcTemplate;
+
+	public Map<String, Object> snapshot() throws SchedulerException {
+		var metaData = _scheduler.getMetaData();
+		var result = new LinkedHashMap<String, Object>();
+		result.put("node", _scheduler.getSchedulerInstanceId());
+		result.put("clustered", metaData.isJobStoreClustered());
+		result.put("jobStore", metaData.getJobStoreClass().getSimpleName());
+		result.put("lastRuns", lastRuns());
+		if (metaData.isJobStoreClustered()) {
+			result.put("nodes", clusterNodes());
+			result.put("firedJobs", clusterFiredJobs());
+		} else {
+			result.put("firedJobs", localFiredJobs());
+		}
+		return result;
+	}
+
+	/**
+	 * Node and time of the last fire per job, kept in the job data by {@link MyJob}; in clustered mode it is
+	 * stored with the job, so this is the same on every node.
+	 */
+	private Map<String, Object> lastRuns() throws SchedulerException {
+		var result = new LinkedHashMap<String, Object>();
+		for (var group : _scheduler.getJobGroupNames()) {
+			for (var jobKey : _scheduler.getJobKeys(GroupMatcher.jobGroupEquals(group))) {
+				var jobData = _scheduler.getJobDetail(jobKey).getJobDataMap();
+				var lastRun = new LinkedHashMap<String, Object>();
+				lastRun.put("node", jobData.get(MyJob.LAST_NODE));
+				lastRun.put("firedTime", jobData.get(MyJob.LAST_FIRED_TIME));
+				result.put(jobKey.toString(), lastRun);
+			}
+		}
+		return result;
+	}
+
+	private List<Map<String, Object>> clusterNodes() {
+		var now = System.currentTimeMillis();
+		return _jdbcTemplate.query(SELECT_NODES, (rs, rowNum) -> {
+			var lastCheckin = rs.getLong("LAST_CHECKIN_TIME");
+			var interval = rs.getLong("CHECKIN_INTERVAL");
+			Map<String, Object> node = new LinkedHashMap<>();
+			node.put("node", rs.getString("INSTANCE_NAME"));
+			node.put("lastCheckinMillisAgo", now - lastCheckin);
+			node.put("alive", now - lastCheckin < interval + CHECKIN_GRACE_MILLIS);
+			return node;
+		}, QuartzConfig.SCHEDULER_NAME);
+	}
+
+	private List<Map<String, Object>> clusterFiredJobs() {
+		return _jdbcTemplate.query(SELECT_FIRED, (rs, rowNum) -> {
+			Map<String, Object> fired = new LinkedHashMap<>();
+			fired.put("job", rs.getString("JOB_GROUP") + "." + rs.getString("JOB_NAME"));
+			fired.put("trigger", rs.getString("TRIGGER_NAME"));
+			fired.put("node", rs.getString("INSTANCE_NAME"));
+			fired.put("firedTime", rs.getLong("FIRED_TIME"));
+			fired.put("state", rs.getString("STATE"));
+			return fired;
+		}, QuartzConfig.SCHEDULER_NAME);
+	}
+
+	private List<Map<String, Object>> localFiredJobs() throws SchedulerException {
+		var result = new ArrayList<Map<String, Object>>();
+		for (var context : _scheduler.getCurrentlyExecutingJobs()) {
+			var fired = new LinkedHashMap<String, Object>();
+			fired.put("job", context.getJobDetail().getKey().toString());
+			fired.put("trigger", context.getTrigger().getKey().getName());
+			fired.put("node", _scheduler.getSchedulerInstanceId());
+			fired.put("firedTime", context.getFireTime().getTime());
+			fired.put("state", "EXECUTING");
+			result.add(fired);
+		}
+		return result;
+	}
+}
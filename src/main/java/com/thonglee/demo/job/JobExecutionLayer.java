@@ -0,0 +1,123 @@
+package com.thonglee.demo.job;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.quartz.JobKey;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs the body of Quartz jobs on a separate elastic pool, so the Quartz trigger threads
+ * only hand work over and are free again right away.
+ * Each job gets a concurrency limit, {@code demo.jobs.max-concurrent.<group>.<name>} or else
+ * {@code demo.jobs.default-max-concurrent}: a fire that finds the limit reached is skipped and counted.
+ * Limits are read once at startup.
+ */
+@Component
+public class JobExecutionLayer {
+	private final ThreadPoolExecutor _workers;
+	private final int _defaultMaxConcurrent;
+	// "group.name" (JobKey.toString()) -> limit
+	private final Map<String, Integer> _maxConcurrent;
+	private final Map<JobKey, Semaphore> _permits = new ConcurrentHashMap<>();
+	private final Map<JobKey, JobRunStats> _stats = new ConcurrentHashMap<>();
+
+	public JobExecutionLayer(@Value("${demo.jobs.workers.core-size:2}") int coreSize,
+			@Value("${demo.jobs.workers.max-size:16}") int maxSize,
+			@Value("${demo.jobs.workers.queue-capacity:100}") int queueCapacity,
+			@Value("${demo.jobs.default-max-concurrent:1}") int defaultMaxConcurrent, Environment environment) {
+		var threadNumber = new AtomicInteger();
+		// Grows past the core size only when the queue is full, idle extra threads die after a minute
+		_workers = new ThreadPoolExecutor(coreSize, maxSize, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+					var thread = new Thread(runnable, "job-worker-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		_workers.allowCoreThreadTimeOut(true);
+		_defaultMaxConcurrent = defaultMaxConcurrent;
+		_maxConcurrent = Map.copyOf(Binder.get(environment)
+				.bind("demo.jobs.max-concurrent", Bindable.mapOf(String.class, Integer.class))
+				.orElse(Map.of()));
+	}
+
+	/**
+	 * @return false when the job was skipped (limit reached) or the worker queue was full
+	 */
+	public boolean submit(JobKey jobKey, Runnable work) {
+		var stats = stats(jobKey);
+		var permits = _permits.computeIfAbsent(jobKey, key -> new Semaphore(maxConcurrent(key)));
+		if (!permits.tryAcquire()) {
+			stats.skipped();
+			return false;
+		}
+
+		try {
+			_workers.execute(() -> run(stats, permits, work));
+			return true;
+		} catch (RejectedExecutionException e) {
+			permits.release();
+			stats.rejected();
+			return false;
+		}
+	}
+
+	void recordMisfire(JobKey jobKey) {
+		stats(jobKey).misfired();
+	}
+
+	public Map<String, Object> snapshot() {
+		var jobs = new LinkedHashMap<String, Object>();
+		_stats.forEach((jobKey, stats) -> {
+			var jobSnapshot = stats.snapshot();
+			jobSnapshot.put("maxConcurrent", maxConcurrent(jobKey));
+			jobs.put(jobKey.toString(), jobSnapshot);
+		});
+
+		var result = new LinkedHashMap<String, Object>();
+		result.put("queueDepth", _workers.getQueue().size());
+		result.put("activeWorkers", _workers.getActiveCount());
+		result.put("poolSize", _workers.getPoolSize());
+		result.put("jobs", jobs);
+		return result;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		_workers.shutdownNow();
+	}
+
+	private void run(JobRunStats stats, Semaphore permits, Runnable work) {
+		var start = System.nanoTime();
+		var success = false;
+		stats.started();
+		try {
+			work.run();
+			success = true;
+		} finally {
+			stats.finished(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), success);
+			permits.release();
+		}
+	}
+
+	private int maxConcurrent(JobKey jobKey) {
+		return _maxConcurrent.getOrDefault(jobKey.toString(), _defaultMaxConcurrent);
+	}
+
+	private JobRunStats stats(JobKey jobKey) {
+		return _stats.computeIfAbsent(jobKey, key -> new JobRunStats());
+	}
+}
@@ -0,0 +1,41 @@
+package com.thonglee.demo.job;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.Trigger;
+import org.quartz.Trigger.CompletedExecutionInstruction;
+import org.quartz.TriggerListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts misfires per job for {@link JobExecutionLayer#snapshot()}.
+ */
+@Component
+public class JobMisfireListener implements TriggerListener {
+	@Autowired
+	private JobExecutionLayer _jobExecutionLayer;
+
+	@Override
+	public String getName() {
+		return "jobMisfireListener";
+	}
+
+	@Override
+	public void triggerFired(Trigger trigger, JobExecutionContext context) {
+	}
+
+	@Override
+	public boolean vetoJobExecution(Trigger trigger, JobExecutionContext context) {
+		return false;
+	}
+
+	@Override
+	public void triggerMisfired(Trigger trigger) {
+		_jobExecutionLayer.recordMisfire(trigger.getJobKey());
+	}
+
+	@Override
+	public void triggerComplete(Trigger trigger, JobExecutionContext context,
+			CompletedExecutionInstruction triggerInstructionCode) {
+	}
+}
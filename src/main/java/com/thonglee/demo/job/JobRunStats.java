@@ -0,0 +1,63 @@
+package com.thonglee.demo.job;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Run counters of one job, updated from trigger threads and worker threads.
+ */
+public class JobRunStats {
+	private final AtomicLong _started = new AtomicLong();
+	private final AtomicLong _succeeded = new AtomicLong();
+	private final AtomicLong _failed = new AtomicLong();
+	private final AtomicLong _skipped = new AtomicLong();
+	private final AtomicLong _rejected = new AtomicLong();
+	private final AtomicLong _misfires = new AtomicLong();
+	private final AtomicInteger _running = new AtomicInteger();
+	private final AtomicLong _totalDurationMillis = new AtomicLong();
+	private final AtomicLong _maxDurationMillis = new AtomicLong();
+	private volatile long _lastDurationMillis;
+
+	void started() {
+		_started.incrementAndGet();
+		_running.incrementAndGet();
+	}
+
+	void finished(long durationMillis, boolean success) {
+		_running.decrementAndGet();
+		(success ? _succeeded : _failed).incrementAndGet();
+		_totalDurationMillis.addAndGet(durationMillis);
+		_maxDurationMillis.accumulateAndGet(durationMillis, Math::max);
+		_lastDurationMillis = durationMillis;
+	}
+
+	void skipped() {
+		_skipped.incrementAndGet();
+	}
+
+	void rejected() {
+		_rejected.incrementAndGet();
+	}
+
+	void misfired() {
+		_misfires.incrementAndGet();
+	}
+
+	public Map<String, Object> snapshot() {
+		var finished = _succeeded.get() + _failed.get();
+		var result = new LinkedHashMap<String, Object>();
+		result.put("started", _started.get());
+		result.put("succeeded", _succeeded.get());
+		result.put("failed", _failed.get());
+		result.put("running", _running.get());
+		result.put("skippedOverlap", _skipped.get());
+		result.put("rejected", _rejected.get());
+		result.put("misfires", _misfires.get());
+		result.put("lastDurationMillis", _lastDurationMillis);
+		result.put("maxDurationMillis", _maxDurationMillis.get());
+		result.put("avgDurationMillis", finished == 0 ? 0 : _totalDurationMillis.get() / finished);
+		return result;
+	}
+}
@@ -2,16 +2,40 @@ package com.thonglee.demo.job;
 
 import java.util.Random;
 
+import org.quartz.DisallowConcurrentExecution;
 import org.quartz.Job;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
+import org.quartz.PersistJobDataAfterExecution;
+import org.quartz.SchedulerException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
-//@DisallowConcurrentExecution
+@DisallowConcurrentExecution
+@PersistJobDataAfterExecution
 public class MyJob implements Job {
+	// Job data keys read by JobClusterView: which scheduler node fired the job last
+	public static final String LAST_NODE = "lastNode";
+	public static final String LAST_FIRED_TIME = "lastFiredTime";
+	
+	@Autowired
+	private JobExecutionLayer jobExecutionLayer;
+	
     @Override
     public void execute(JobExecutionContext context) throws JobExecutionException {
+    	try {
+    		var jobData = context.getJobDetail().getJobDataMap();
+    		jobData.put(LAST_NODE, context.getScheduler().getSchedulerInstanceId());
+    		jobData.put(LAST_FIRED_TIME, context.getFireTime().getTime());
+    	} catch (SchedulerException e) {
+    		throw new JobExecutionException(e);
+    	}
+    	// The long running part goes to the job workers, the Quartz thread is released at once
+    	jobExecutionLayer.submit(context.getJobDetail().getKey(), this::work);
+    }
+    
+    private void work() {
         // Job logic goes here
     	var rnd = new Random();
     	System.out.println(rnd.nextInt(0, 100));
@@ -19,7 +43,7 @@ public class MyJob implements Job {
 			Thread.sleep(1000000);
 			System.out.println("END");
 		} catch (InterruptedException e) {
-			e.printStackTrace();
+			Thread.currentThread().interrupt();
 		} 
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,312 @@
+package com.thonglee.demo.service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.thonglee.demo.dao.MaintenanceRunRepository;
+import com.thonglee.demo.entity.MaintenanceRun;
+
+/**
+ * Catalog-wide maintenance over the product table without one big transaction.
+ * The id range is split into chunks of {@code demo.maintenance.chunk-size} ids; {@code demo.maintenance.parallelism}
+ * workers take the next chunk, update it with one statement and record the chunk as done in the same transaction.
+ * A run that stopped (interrupt, failure, crash) is resumed by the next run of the same task and parameter:
+ * finished chunks are skipped, so no row is updated twice.
+ * A node claims the run in maintenance_run before it works on it. A run another node holds as RUNNING is left
+ * alone until that node committed no chunk for {@code demo.maintenance.claim-timeout-ms}, i.e. it probably died.
+ *
+ * The node that runs a task invalidates its caches when the run ends. The other nodes of a cluster see the
+ * committed chunks in maintenance_chunk every {@code demo.maintenance.invalidation-poll-ms} and invalidate theirs;
+ * the cache TTL bounds the staleness in between.
+ */
+@Service
+public class CatalogMaintenanceService {
+	private static final Logger LOGGER = LoggerFactory.getLogger(CatalogMaintenanceService.class);
+
+	private static final String INSERT_CHUNK = "INSERT INTO maintenance_chunk (run_id, chunk_index, rows_updated, completed_at) "
+			+ "VALUES (?, ?, ?, ?)";
+	// Succeeds for a stopped run, or a RUNNING one whose claim is older than the timeout and made no progress since
+	private static final String CLAIM_RUN = "UPDATE maintenance_run SET status = 'RUNNING', claimed_at = ? "
+			+ "WHERE id = ? AND (status <> 'RUNNING' OR (claimed_at IS NULL OR claimed_at < ?) "
+			+ "AND NOT EXISTS (SELECT 1 FROM maintenance_chunk WHERE run_id = ? AND completed_at >= ?))";
+
+	public enum Task {
+		// parameter: price factor, e.g. 1.05 for +5%
+		REPRICE("UPDATE product SET unit_price = ROUND(unit_price * ?, 2), last_updated = NOW() WHERE id >= ? AND id < ?"),
+		// active follows units_in_stock, only rows that disagree are written
+		STOCK_SYNC("UPDATE product SET active = (units_in_stock > 0), last_updated = NOW() "
+				+ "WHERE id >= ? AND id < ? AND active <> (units_in_stock > 0)");
+
+		private final String _sql;
+
+		Task(String sql) {
+			_sql = sql;
+		}
+	}
+
+	@Autowired
+	private JdbcTemplate _jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate _transactionTemplate;
+
+	@Autowired
+	private MaintenanceRunRepository _maintenanceRunRepository;
+
+	@Autowired
+	private ProductCatalogCache _productCatalogCache;
+
+	@Autowired
+	private InventoryReservationService _inventoryReservationService;
+
+	@Autowired
+	private CategorySummaryIndex _categorySummaryIndex;
+
+	@Value("${demo.maintenance.chunk-size:1000}")
+	private int _chunkSize;
+
+	// Keep it below the Hikari pool size, each worker holds a connection while its chunk runs
+	@Value("${demo.maintenance.parallelism:4}")
+	private int _parallelism;
+
+	// Keep it well above the time one chunk takes
+	@Value("${demo.maintenance.claim-timeout-ms:600000}")
+	private long _claimTimeoutMillis;
+
+	private final Map<Long, Progress> _running = new ConcurrentHashMap<>();
+
+	// Highest maintenance_chunk id seen by pollChunks, null before the first poll
+	private Long _lastChunkId;
+
+	/**
+	 * Runs (or resumes) the task on the calling thread and returns when every chunk is done.
+	 * Interrupting the calling thread stops the workers after their current chunk.
+	 *
+	 * @throws IllegalStateException when the unfinished run of the task and parameter is running already
+	 */
+	public MaintenanceRun run(Task task, String parameter) {
+		var argument = argument(task, parameter);
+		var run = startOrResume(task, parameter == null ? "" : parameter.trim());
+		var done = finishedChunks(run.getId());
+		var progress = new Progress(run, done.cardinality());
+		_running.put(run.getId(), progress);
+		LOGGER.info("Maintenance run {} {} '{}': {} of {} chunks already done", run.getId(), task, run.getParameter(),
+				done.cardinality(), run.getTotalChunks());
+
+		if (task == Task.STOCK_SYNC) {
+			// Reservations counted in memory must reach units_in_stock first
+			_inventoryReservationService.flush();
+		}
+
+		var status = MaintenanceRun.Status.COMPLETED;
+		try {
+			processChunks(task, argument, run, done, progress);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			status = MaintenanceRun.Status.INTERRUPTED;
+		} catch (RuntimeException e) {
+			status = MaintenanceRun.Status.FAILED;
+			throw e;
+		} finally {
+			_running.remove(run.getId());
+			// Prices or flags changed underneath JPA
+			_productCatalogCache.invalidateAll();
+			_categorySummaryIndex.reconcile();
+			run.setStatus(status);
+			run.setRowsUpdated(run.getRowsUpdated() + progress._rows.get());
+			run.setFinishedAt(status == MaintenanceRun.Status.COMPLETED ? Instant.now() : null);
+			run = _maintenanceRunRepository.save(run);
+			LOGGER.info("Maintenance run {} {}: {}", run.getId(), status, progress.snapshot());
+		}
+		return run;
+	}
+
+	/**
+	 * Every committed chunk, of a run on any node, adds a maintenance_chunk row: a new highest id means product
+	 * rows changed underneath the caches of this node.
+	 */
+	@Scheduled(initialDelayString = "${demo.maintenance.invalidation-poll-ms:10000}",
+			fixedDelayString = "${demo.maintenance.invalidation-poll-ms:10000}")
+	public synchronized void pollChunks() {
+		var latest = _jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM maintenance_chunk", Long.class);
+		var changed = _lastChunkId != null && !_lastChunkId.equals(latest);
+		_lastChunkId = latest;
+		if (changed) {
+			_productCatalogCache.invalidateAll();
+			_categorySummaryIndex.reconcile();
+		}
+	}
+
+	/**
+	 * Chunks done, rows updated and rows/sec of the runs in progress on this node.
+	 */
+	public Map<Long, Map<String, Object>> progress() {
+		var result = new LinkedHashMap<Long, Map<String, Object>>();
+		_running.forEach((runId, progress) -> result.put(runId, progress.snapshot()));
+		return result;
+	}
+
+	private void processChunks(Task task, Object argument, MaintenanceRun run, BitSet done, Progress progress)
+			throws InterruptedException {
+		var nextChunk = new AtomicInteger();
+		var stop = new AtomicBoolean();
+		var workerNumber = new AtomicInteger();
+		var workers = Executors.newFixedThreadPool(_parallelism,
+				runnable -> new Thread(runnable, "maintenance-" + run.getId() + "-" + workerNumber.incrementAndGet()));
+		var completion = new ExecutorCompletionService<Void>(workers);
+		try {
+			for (int i = 0; i < _parallelism; i++) {
+				completion.submit(() -> {
+					int chunk;
+					while (!stop.get() && (chunk = nextChunk.getAndIncrement()) < run.getTotalChunks()) {
+						if (!done.get(chunk)) {
+							progress.chunkDone(processChunk(task, argument, run, chunk));
+						}
+					}
+					return null;
+				});
+			}
+			for (int i = 0; i < _parallelism; i++) {
+				completion.take().get();
+			}
+		} catch (ExecutionException e) {
+			stop.set(true);
+			throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+		} finally {
+			// Workers finish the chunk in hand, its transaction is never cut in half
+			stop.set(true);
+			workers.shutdown();
+			workers.awaitTermination(1, TimeUnit.MINUTES);
+		}
+	}
+
+	private int processChunk(Task task, Object argument, MaintenanceRun run, int chunk) {
+		var fromId = run.getMinId() + (long) chunk * run.getChunkSize();
+		var toId = fromId + run.getChunkSize();
+		return _transactionTemplate.execute(status -> {
+			var rows = argument == null ? _jdbcTemplate.update(task._sql, fromId, toId)
+					: _jdbcTemplate.update(task._sql, argument, fromId, toId);
+			_jdbcTemplate.update(INSERT_CHUNK, run.getId(), chunk, rows, Timestamp.from(Instant.now()));
+			return rows;
+		});
+	}
+
+	private MaintenanceRun startOrResume(Task task, String parameter) {
+		var unfinished = EnumSet.of(MaintenanceRun.Status.RUNNING, MaintenanceRun.Status.INTERRUPTED,
+				MaintenanceRun.Status.FAILED);
+		var found = _maintenanceRunRepository
+				.findFirstByTaskAndParameterAndStatusInOrderByIdDesc(task.name(), parameter, unfinished);
+		var now = Instant.now();
+		if (found.isEmpty()) {
+			var run = newRun(task, parameter);
+			run.setStatus(MaintenanceRun.Status.RUNNING);
+			run.setClaimedAt(now);
+			return _maintenanceRunRepository.save(run);
+		}
+
+		var runId = found.get().getId();
+		var expired = Timestamp.from(now.minusMillis(_claimTimeoutMillis));
+		if (_jdbcTemplate.update(CLAIM_RUN, Timestamp.from(now), runId, expired, runId, expired) == 0) {
+			throw new IllegalStateException("Maintenance run " + runId + " " + task + " '" + parameter
+					+ "' is running already, on this or another node");
+		}
+		return _maintenanceRunRepository.findById(runId).orElseThrow();
+	}
+
+	private MaintenanceRun newRun(Task task, String parameter) {
+		var range = _jdbcTemplate.queryForMap("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM product");
+		var minId = range.get("min_id") == null ? 0 : ((Number) range.get("min_id")).longValue();
+		var maxId = range.get("max_id") == null ? -1 : ((Number) range.get("max_id")).longValue();
+
+		var run = new MaintenanceRun();
+		run.setTask(task.name());
+		run.setParameter(parameter);
+		run.setMinId(minId);
+		run.setMaxId(maxId);
+		run.setChunkSize(_chunkSize);
+		// Rows inserted after this point (id > maxId) are not part of the run
+		run.setTotalChunks(maxId < minId ? 0 : (int) ((maxId - minId) / _chunkSize + 1));
+		run.setStartedAt(Instant.now());
+		return run;
+	}
+
+	private BitSet finishedChunks(Long runId) {
+		var done = new BitSet();
+		_jdbcTemplate.query("SELECT chunk_index FROM maintenance_chunk WHERE run_id = ?",
+				(RowCallbackHandler) rs -> done.set(rs.getInt(1)), runId);
+		return done;
+	}
+
+	private static Object argument(Task task, String parameter) {
+		if (task != Task.REPRICE) {
+			return null;
+		}
+		BigDecimal factor;
+		try {
+			factor = new BigDecimal(parameter == null ? "" : parameter.trim());
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("REPRICE needs a price factor, e.g. 1.05");
+		}
+		if (factor.signum() <= 0) {
+			throw new IllegalArgumentException("price factor must be positive");
+		}
+		return factor;
+	}
+
+	private static class Progress {
+		private final MaintenanceRun _run;
+		private final long _startNanos = System.nanoTime();
+		private final int _chunksAtStart;
+		private final AtomicInteger _chunks = new AtomicInteger();
+		private final AtomicLong _rows = new AtomicLong();
+
+		Progress(MaintenanceRun run, int chunksAtStart) {
+			_run = run;
+			_chunksAtStart = chunksAtStart;
+		}
+
+		void chunkDone(int rows) {
+			_chunks.incrementAndGet();
+			_rows.addAndGet(rows);
+		}
+
+		Map<String, Object> snapshot() {
+			var seconds = Math.max(System.nanoTime() - _startNanos, 1) / 1e9;
+			var result = new LinkedHashMap<String, Object>();
+			result.put("task", _run.getTask());
+			result.put("parameter", _run.getParameter());
+			result.put("chunksDone", _chunksAtStart + _chunks.get());
+			result.put("totalChunks", _run.getTotalChunks());
+			result.put("resumedFromChunks", _chunksAtStart);
+			result.put("rowsUpdated", _rows.get());
+			result.put("seconds", Math.round(seconds * 10) / 10.0);
+			result.put("rowsPerSecond", Math.round(_rows.get() / seconds));
+			// chunks cover chunk-size ids each, the id throughput counts rows that needed no update as well
+			result.put("idsPerSecond", Math.round((long) _chunks.get() * _run.getChunkSize() / seconds));
+			return result;
+		}
+	}
+}
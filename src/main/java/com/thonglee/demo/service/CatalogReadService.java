@@ -0,0 +1,46 @@
+package com.thonglee.demo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.thonglee.demo.dao.CountryRepository;
+import com.thonglee.demo.dao.ProductRepository;
+import com.thonglee.demo.entity.CountryView;
+import com.thonglee.demo.entity.ProductView;
+
+/**
+ * Read endpoints backed by joined queries into records, so serialization never walks lazy associations.
+ * The statement budget of each one is pinned by ReadEndpointQueryCountTests.
+ */
+@Service
+@Transactional(readOnly = true)
+public class CatalogReadService {
+	@Autowired
+	private ProductRepository _productRepository;
+
+	@Autowired
+	private CountryRepository _countryRepository;
+
+	public Page<ProductView> fetchProducts(Pageable pageable) {
+		return _productRepository.findViews(pageable);
+	}
+
+	public List<CountryView> fetchCountriesWithStates() {
+		var countries = _countryRepository.findAllWithStates();
+		var result = new ArrayList<CountryView>(countries.size());
+		for (var country : countries) {
+			var states = new ArrayList<CountryView.StateView>(country.getStates().size());
+			for (var state : country.getStates()) {
+				states.add(new CountryView.StateView(state.getId(), state.getName()));
+			}
+			result.add(new CountryView(country.getId(), country.getCode(), country.getName(), states));
+		}
+		return result;
+	}
+}
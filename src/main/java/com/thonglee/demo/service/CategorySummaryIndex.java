@@ -0,0 +1,242 @@
+package com.thonglee.demo.service;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.thonglee.demo.entity.CategorySummary;
+import com.thonglee.demo.entity.Product;
+
+/**
+ * In-memory read model of product count and price range per category, served in O(categories).
+ * {@link ProductServiceImpl} applies every write as a delta: the old contribution of the product out, the new one in.
+ * Each category keeps a price histogram, so min/max stay exact when the cheapest or dearest product goes away.
+ * Writes that bypass the service (Spring Data REST, other nodes, maintenance runs) are fixed by
+ * {@link #reconcile()}, which recounts from the product table every {@code demo.category-summary.reconcile-interval-ms}.
+ */
+@Component
+public class CategorySummaryIndex {
+	private static final Logger LOGGER = LoggerFactory.getLogger(CategorySummaryIndex.class);
+
+	private static final String AGGREGATE = "SELECT p.category_id, c.category_name, p.unit_price, p.active, COUNT(*) "
+			+ "FROM product p JOIN product_category c ON c.id = p.category_id "
+			+ "GROUP BY p.category_id, c.category_name, p.unit_price, p.active";
+
+	@Autowired
+	private JdbcTemplate _jdbcTemplate;
+
+	// Guarded by this; empty categories stay until a reconcile, their last write is still needed there
+	private final Map<Long, CategoryState> _states = new HashMap<>();
+	// What readers see, replaced per category after each change
+	private final Map<Long, CategorySummary> _summaries = new ConcurrentHashMap<>();
+	// Guarded by this; categories with a database write between beginWrite and endWrite -> writes in flight
+	private final Map<Long, Integer> _pendingWrites = new HashMap<>();
+	private long _writeSequence;
+	private long _reconciles;
+	private long _driftedCategories;
+
+	/**
+	 * The part of the summary one product accounts for, taken before the write (the entity may be updated in place).
+	 */
+	public record Contribution(Long categoryId, String categoryName, BigDecimal price, boolean active) {
+		public static Contribution of(Product product) {
+			if (product == null || product.getCategory() == null || product.getCategory().getId() == null) {
+				return null;
+			}
+			return new Contribution(product.getCategory().getId(), product.getCategory().getCategoryName(),
+					product.getUnnitPrice(), product.isActive());
+		}
+	}
+
+	public void add(Contribution contribution) {
+		replace(null, contribution);
+	}
+
+	public void remove(Contribution contribution) {
+		replace(contribution, null);
+	}
+
+	/**
+	 * Call before writing products of these categories to the database, and {@link #endWrite} once the delta was
+	 * applied or the write failed. In between, the row may be committed but the delta not applied yet, so a
+	 * reconcile leaves these categories alone instead of counting the row twice. Null ids are ignored.
+	 */
+	public synchronized void beginWrite(Collection<Long> categoryIds) {
+		for (var categoryId : categoryIds) {
+			if (categoryId != null) {
+				_pendingWrites.merge(categoryId, 1, Integer::sum);
+			}
+		}
+	}
+
+	public synchronized void endWrite(Collection<Long> categoryIds) {
+		for (var categoryId : categoryIds) {
+			if (categoryId != null) {
+				_pendingWrites.computeIfPresent(categoryId, (id, writes) -> writes > 1 ? writes - 1 : null);
+			}
+		}
+	}
+
+	public synchronized void replace(Contribution old, Contribution current) {
+		_writeSequence++;
+		if (old != null) {
+			apply(old, -1);
+		}
+		if (current != null) {
+			apply(current, 1);
+		}
+	}
+
+	public List<CategorySummary> summaries() {
+		return _summaries.values().stream().sorted(Comparator.comparing(CategorySummary::categoryId)).toList();
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void build() {
+		reconcile();
+	}
+
+	/**
+	 * Recounts every category from the product table and replaces the ones that drifted. A category written while
+	 * the aggregate ran is left alone, the delta is newer than the count; so is one with a write still in flight,
+	 * whose row the count may already include. The next round checks them again.
+	 */
+	@Scheduled(initialDelayString = "${demo.category-summary.reconcile-interval-ms:300000}",
+			fixedDelayString = "${demo.category-summary.reconcile-interval-ms:300000}")
+	public void reconcile() {
+		long startSequence;
+		synchronized (this) {
+			startSequence = _writeSequence;
+		}
+
+		var counted = new HashMap<Long, CategoryState>();
+		_jdbcTemplate.query(AGGREGATE, rs -> {
+			var state = counted.computeIfAbsent(rs.getLong(1), CategoryState::new);
+			state.add(rs.getString(2), rs.getBigDecimal(3), rs.getBoolean(4), rs.getInt(5));
+		});
+
+		synchronized (this) {
+			var categoryIds = new HashSet<>(_states.keySet());
+			categoryIds.addAll(counted.keySet());
+			var drifted = 0;
+			for (var categoryId : categoryIds) {
+				var current = _states.get(categoryId);
+				if (_pendingWrites.containsKey(categoryId) || (current != null && current._lastWrite > startSequence)) {
+					continue;
+				}
+				var expected = counted.get(categoryId);
+				if (expected == null) {
+					if (current != null && current._products != 0) {
+						drifted++;
+					}
+					_states.remove(categoryId);
+					_summaries.remove(categoryId);
+				} else {
+					if (current == null || !current.sameCounts(expected)) {
+						drifted++;
+					}
+					_states.put(categoryId, expected);
+					publish(expected);
+				}
+			}
+			_reconciles++;
+			_driftedCategories += drifted;
+			// The first build counts every category as drifted
+			if (drifted > 0 && _reconciles > 1) {
+				LOGGER.warn("Category summary drifted in {} of {} categories, replaced from the product table", drifted,
+						categoryIds.size());
+			}
+		}
+	}
+
+	public synchronized Map<String, Object> stats() {
+		var result = new LinkedHashMap<String, Object>();
+		result.put("categories", _summaries.size());
+		result.put("writes", _writeSequence);
+		result.put("reconciles", _reconciles);
+		result.put("driftedCategories", _driftedCategories);
+		return result;
+	}
+
+	private void apply(Contribution contribution, int delta) {
+		var state = _states.computeIfAbsent(contribution.categoryId(), CategoryState::new);
+		state.add(contribution.categoryName(), contribution.price(), contribution.active(), delta);
+		state._lastWrite = _writeSequence;
+		publish(state);
+	}
+
+	private void publish(CategoryState state) {
+		if (state._products > 0) {
+			_summaries.put(state._categoryId, state.summary());
+		} else {
+			_summaries.remove(state._categoryId);
+		}
+	}
+
+	private static class CategoryState {
+		private final Long _categoryId;
+		private String _name;
+		private int _products;
+		private int _activeProducts;
+		// price -> products with that price; compareTo order, so 10.0 and 10.00 are one entry
+		private final TreeMap<BigDecimal, Integer> _prices = new TreeMap<>();
+		private long _lastWrite;
+
+		CategoryState(Long categoryId) {
+			_categoryId = categoryId;
+		}
+
+		void add(String name, BigDecimal price, boolean active, int delta) {
+			if (name != null) {
+				_name = name;
+			}
+			_products += delta;
+			if (active) {
+				_activeProducts += delta;
+			}
+			if (price != null) {
+				_prices.compute(price, (key, count) -> {
+					var updated = (count == null ? 0 : count) + delta;
+					// A negative count can only come from drift, reconcile rebuilds it
+					return updated > 0 ? updated : null;
+				});
+			}
+		}
+
+		boolean sameCounts(CategoryState other) {
+			if (_products != other._products || _activeProducts != other._activeProducts
+					|| _prices.size() != other._prices.size()) {
+				return false;
+			}
+			var mine = _prices.entrySet().iterator();
+			for (var theirs : other._prices.entrySet()) {
+				var entry = mine.next();
+				if (entry.getKey().compareTo(theirs.getKey()) != 0 || !entry.getValue().equals(theirs.getValue())) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		CategorySummary summary() {
+			return new CategorySummary(_categoryId, _name, _products, _activeProducts,
+					_prices.isEmpty() ? null : _prices.firstKey(), _prices.isEmpty() ? null : _prices.lastKey());
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package com.thonglee.demo.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded executor for blocking database work behind the web endpoints.
+ * Tomcat workers hand the call over and are free again; when the database is saturated the queue
+ * fills up and further calls are rejected at once instead of piling up on the servlet pool.
+ */
+public class DbExecutor {
+	private final ThreadPoolExecutor _executor;
+	private final long _timeoutMillis;
+	private final AtomicLong _rejected = new AtomicLong();
+	private final AtomicLong _timedOut = new AtomicLong();
+
+	public DbExecutor(int threads, int queueCapacity, long timeoutMillis) {
+		var threadNumber = new AtomicInteger();
+		_executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity),
+				runnable -> new Thread(runnable, "db-" + threadNumber.incrementAndGet()),
+				(runnable, executor) -> {
+					_rejected.incrementAndGet();
+					throw new RejectedExecutionException("Database executor queue is full");
+				});
+		_timeoutMillis = timeoutMillis;
+	}
+
+	/**
+	 * @return a future failing with {@link RejectedExecutionException} when the queue is full,
+	 *         or with {@link TimeoutException} when the call takes longer than the configured timeout
+	 */
+	public <T> CompletableFuture<T> supply(Supplier<T> call) {
+		try {
+			return CompletableFuture.supplyAsync(call, _executor)
+					.orTimeout(_timeoutMillis, TimeUnit.MILLISECONDS)
+					.whenComplete((result, error) -> {
+						if (error instanceof TimeoutException) {
+							_timedOut.incrementAndGet();
+						}
+					});
+		} catch (RejectedExecutionException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+
+	public CompletableFuture<Void> run(Runnable call) {
+		return supply(() -> {
+			call.run();
+			return null;
+		});
+	}
+
+	public Map<String, Object> snapshot() {
+		var result = new LinkedHashMap<String, Object>();
+		result.put("activeThreads", _executor.getActiveCount());
+		result.put("poolSize", _executor.getPoolSize());
+		result.put("maxPoolSize", _executor.getMaximumPoolSize());
+		result.put("queueDepth", _executor.getQueue().size());
+		result.put("queueRemainingCapacity", _executor.getQueue().remainingCapacity());
+		result.put("completed", _executor.getCompletedTaskCount());
+		result.put("rejected", _rejected.get());
+		result.put("timedOut", _timedOut.get());
+		result.put("timeoutMillis", _timeoutMillis);
+		return result;
+	}
+
+	public void shutdown() {
+		_executor.shutdown();
+	}
+}
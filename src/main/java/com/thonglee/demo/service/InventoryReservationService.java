@@ -0,0 +1,173 @@
+package com.thonglee.demo.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Stock reservations for hot SKUs without a row lock per purchase.
+ * The first reservation of a product loads units_in_stock into a {@link StripedStock};
+ * after that reservations are decided in memory and the net units taken are written back
+ * with one batched relative UPDATE every {@code demo.inventory.flush-interval-ms}.
+ *
+ * The database stays the source of truth: counters are rebuilt from it after a restart and
+ * flushed on shutdown. Reservations are acknowledged before they are written, so a crash (not a
+ * shutdown) loses the decrements of at most one flush interval and the product can be oversold
+ * by that many units; lower the interval where that matters more than the UPDATE load.
+ */
+@Service
+public class InventoryReservationService {
+	private static final Logger LOGGER = LoggerFactory.getLogger(InventoryReservationService.class);
+
+	@Autowired
+	private JdbcTemplate _jdbcTemplate;
+
+	@Autowired
+	private ProductCatalogCache _productCatalogCache;
+
+	@Value("${demo.inventory.stripes:0}")
+	private int _stripes;
+
+	private final Map<Long, StripedStock> _stocks = new ConcurrentHashMap<>();
+
+	/**
+	 * @return false when fewer than {@code quantity} units are left (nothing is reserved then)
+	 */
+	public boolean reserve(Long productId, int quantity) {
+		if (quantity <= 0) {
+			throw new IllegalArgumentException("quantity must be positive");
+		}
+		while (true) {
+			var stock = stock(productId);
+			if (stock.tryReserve(quantity)) {
+				return true;
+			}
+			if (!stock.isRetired()) {
+				return false;
+			}
+			// Replaced while we were at it, ask the new counter
+		}
+	}
+
+	/**
+	 * @throws IllegalArgumentException when more units come back than are reserved; reservations made
+	 * before the stock was last overwritten by a product update count as gone
+	 */
+	public void release(Long productId, int quantity) {
+		if (quantity <= 0) {
+			throw new IllegalArgumentException("quantity must be positive");
+		}
+		while (!stock(productId).release(quantity)) {
+			// Replaced while we were at it, release on the new counter
+		}
+	}
+
+	public long available(Long productId) {
+		while (true) {
+			var stock = stock(productId);
+			var available = stock.available();
+			if (!stock.isRetired()) {
+				return available;
+			}
+			stock.awaitHandoff();
+		}
+	}
+
+	/**
+	 * Run a write that sets units_in_stock to an absolute value (product update or delete), with the
+	 * counter of the product handed off around it: pending reservations are written first, reservations
+	 * and releases of the product wait meanwhile, and the next one reloads the written value.
+	 * When the pending reservations or {@code write} fail, the counter stays as it was.
+	 */
+	public synchronized <T> T replaceStock(Long productId, Supplier<T> write) {
+		var stock = stock(productId);
+		synchronized (stock) {
+			var taken = stock.retire();
+			if (taken != 0) {
+				try {
+					write(Map.of(productId, taken));
+				} catch (DataAccessException e) {
+					stock.reopen(taken);
+					throw e;
+				}
+			}
+			T result;
+			try {
+				result = write.get();
+			} catch (RuntimeException e) {
+				stock.reopen(0);
+				throw e;
+			}
+			_stocks.remove(productId, stock);
+			return result;
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${demo.inventory.flush-interval-ms:500}")
+	public synchronized void flush() {
+		var drained = new HashMap<Long, Long>();
+		_stocks.forEach((productId, stock) -> {
+			var taken = stock.drainTaken();
+			if (taken != 0) {
+				drained.put(productId, taken);
+			}
+		});
+		if (drained.isEmpty()) {
+			return;
+		}
+
+		try {
+			write(drained);
+		} catch (DataAccessException e) {
+			// Keep the deltas for the next round instead of losing them; replaceStock holds this
+			// monitor as well, so every drained counter is still the one in the map
+			drained.forEach((productId, taken) -> _stocks.get(productId).restoreTaken(taken));
+			LOGGER.warn("Inventory flush failed, {} products kept for the next round", drained.size(), e);
+		}
+	}
+
+	@PreDestroy
+	public void flushOnShutdown() {
+		flush();
+	}
+
+	private void write(Map<Long, Long> taken) {
+		var deltas = new ArrayList<Object[]>(taken.size());
+		taken.forEach((productId, units) -> deltas.add(new Object[] { units, productId }));
+		_jdbcTemplate.batchUpdate("UPDATE product SET units_in_stock = units_in_stock - ? WHERE id = ?", deltas);
+		// units_in_stock is part of the cached products, pages and listings; this also changes their ETags
+		var categoryIds = new HashSet<Long>();
+		taken.keySet().forEach(productId -> {
+			_productCatalogCache.invalidateProduct(productId, null);
+			var stock = _stocks.get(productId);
+			if (stock != null && stock.categoryId() != null) {
+				categoryIds.add(stock.categoryId());
+			}
+		});
+		categoryIds.forEach(categoryId -> _productCatalogCache.invalidateProduct(null, categoryId));
+	}
+
+	private StripedStock stock(Long productId) {
+		return _stocks.computeIfAbsent(productId, id -> _jdbcTemplate.queryForObject(
+				"SELECT units_in_stock, category_id FROM product WHERE id = ?",
+				(rs, row) -> new StripedStock(rs.getLong(1), rs.getObject(2, Long.class), stripes()), id));
+	}
+
+	private int stripes() {
+		return _stripes > 0 ? _stripes : Runtime.getRuntime().availableProcessors();
+	}
+}
@@ -0,0 +1,284 @@
+package com.thonglee.demo.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thonglee.demo.dao.ProductCategoryRepository;
+import com.thonglee.demo.entity.ProductImportReport;
+import com.thonglee.demo.entity.ProductImportRow;
+
+/**
+ * Bulk product import. Input is read row by row, validated in parallel one chunk at a time
+ * and written with a JDBC batch per chunk, each chunk in its own transaction.
+ * Hibernate is bypassed on purpose: with IDENTITY ids it sends one INSERT per entity.
+ */
+@Service
+public class ProductBulkImportService {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ProductBulkImportService.class);
+	private static final String INSERT_PRODUCT = "INSERT INTO product (sku, name, description, unit_price, image_url, "
+			+ "active, units_in_stock, category_id, date_created, last_updated) "
+			+ "VALUES (?, ?, ?, ?, ?, ?, ?, ?, NOW(), NOW())";
+
+	public enum Format {
+		JSON, NDJSON, CSV
+	}
+
+	@Autowired
+	private JdbcTemplate _jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate _transactionTemplate;
+
+	@Autowired
+	private ObjectMapper _objectMapper;
+
+	@Autowired
+	private ProductCategoryRepository _productCategoryRepository;
+
+	@Autowired
+	private ProductCatalogCache _productCatalogCache;
+
+	@Autowired
+	private ProductSearchIndex _productSearchIndex;
+
+	@Autowired
+	private CategorySummaryIndex _categorySummaryIndex;
+
+	@Value("${demo.import.chunk-size:1000}")
+	private int _chunkSize;
+
+	public ProductImportReport importProducts(InputStream in, Format format) {
+		var start = System.currentTimeMillis();
+		var categories = loadCategoryNames();
+		var chunks = new ArrayList<ProductImportReport.Chunk>();
+		long total = 0;
+		long inserted = 0;
+		String error = null;
+
+		try (var reader = open(in, format)) {
+			var buffer = new ArrayList<ProductImportReader.ParsedRow>(_chunkSize);
+			ProductImportReader.ParsedRow parsed;
+			do {
+				try {
+					parsed = reader.next();
+				} catch (IOException e) {
+					// Earlier chunks are committed; the rows read so far still go in, then the report says where it stopped
+					error = "input unreadable after row " + (total + buffer.size()) + ": " + e.getMessage();
+					parsed = null;
+				}
+				if (parsed != null) {
+					buffer.add(parsed);
+				}
+				if (buffer.size() == _chunkSize || (parsed == null && !buffer.isEmpty())) {
+					var chunk = writeChunk(chunks.size(), buffer, categories);
+					chunks.add(chunk);
+					total += chunk.rows();
+					inserted += chunk.inserted();
+					buffer.clear();
+				}
+			} while (parsed != null);
+		} catch (IOException e) {
+			// Not an array / no CSV header, or closing the input failed
+			if (error == null) {
+				error = "input unreadable: " + e.getMessage();
+			}
+		} finally {
+			if (inserted > 0) {
+				// Rows went around JPA, so nothing cached about the catalog can be trusted anymore
+				_productCatalogCache.invalidateAll();
+			}
+		}
+
+		return new ProductImportReport(total, inserted, total - inserted, System.currentTimeMillis() - start, chunks,
+				error);
+	}
+
+	private ProductImportReader open(InputStream in, Format format) throws IOException {
+		return switch (format) {
+		case JSON -> ProductImportReader.jsonArray(in, _objectMapper);
+		case NDJSON -> ProductImportReader.ndjson(in, _objectMapper);
+		case CSV -> ProductImportReader.csv(in);
+		};
+	}
+
+	private ProductImportReport.Chunk writeChunk(int index, List<ProductImportReader.ParsedRow> rows,
+			Map<Long, String> categories) {
+		var errors = validate(rows, categories.keySet());
+		var valid = new ArrayList<ProductImportRow>(rows.size());
+		for (var parsed : rows) {
+			if (parsed.error() == null && parsed.row() != null && !errors.failed(parsed.rowNumber())) {
+				valid.add(parsed.row());
+			}
+		}
+
+		var inserted = 0;
+		if (!valid.isEmpty()) {
+			var categoryIds = valid.stream().map(ProductImportRow::categoryId).collect(Collectors.toSet());
+			_categorySummaryIndex.beginWrite(categoryIds);
+			try {
+				var ids = _transactionTemplate.execute(status -> insert(valid));
+				inserted = valid.size();
+				indexInserted(valid, ids, categories);
+			} catch (DataAccessException e) {
+				errors.rolledBack("chunk rolled back: " + e.getMostSpecificCause().getMessage());
+			} finally {
+				_categorySummaryIndex.endWrite(categoryIds);
+			}
+		}
+		return new ProductImportReport.Chunk(index, rows.get(0).rowNumber(), rows.size(), inserted, errors.messages());
+	}
+
+	// Only the committed rows go into the search index and the category summary, no table rescan per import
+	private void indexInserted(List<ProductImportRow> rows, List<Long> ids, Map<Long, String> categories) {
+		for (int i = 0; i < rows.size(); i++) {
+			var row = rows.get(i);
+			if (ids.size() == rows.size()) {
+				_productSearchIndex.index(ids.get(i), row.name(), row.sku());
+			}
+			_categorySummaryIndex.add(new CategorySummaryIndex.Contribution(row.categoryId(),
+					categories.get(row.categoryId()), price(row), active(row)));
+		}
+		if (ids.size() != rows.size()) {
+			// The driver did not return a key per row; indexed on the next rebuild, reported so it is not silent
+			LOGGER.warn("Import: {} generated keys for {} rows, these rows are not searchable until the index is rebuilt",
+					ids.size(), rows.size());
+		}
+	}
+
+	private ChunkErrors validate(List<ProductImportReader.ParsedRow> rows, Set<Long> categoryIds) {
+		var errors = new ChunkErrors();
+		rows.parallelStream().forEach(parsed -> {
+			var message = parsed.error() != null ? parsed.error() : validate(parsed.row(), categoryIds);
+			if (message != null) {
+				errors.fail(parsed.rowNumber(), message);
+			}
+		});
+		return errors;
+	}
+
+	private static String validate(ProductImportRow row, Set<Long> categoryIds) {
+		if (row.sku() == null || row.sku().isBlank()) {
+			return "sku is required";
+		}
+		if (row.name() == null || row.name().isBlank()) {
+			return "name is required";
+		}
+		if (row.unitPrice() != null && row.unitPrice().signum() < 0) {
+			return "unitPrice must not be negative";
+		}
+		if (row.unitsInStock() != null && row.unitsInStock() < 0) {
+			return "unitsInStock must not be negative";
+		}
+		if (row.categoryId() == null || !categoryIds.contains(row.categoryId())) {
+			return "unknown categoryId " + row.categoryId();
+		}
+		return null;
+	}
+
+	/**
+	 * @return the generated ids in row order
+	 */
+	private List<Long> insert(List<ProductImportRow> rows) {
+		var keys = new GeneratedKeyHolder();
+		_jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_PRODUCT, new String[] { "id" }),
+				new BatchPreparedStatementSetter() {
+					@Override
+					public void setValues(PreparedStatement ps, int i) throws SQLException {
+						var row = rows.get(i);
+						ps.setString(1, row.sku());
+						ps.setString(2, row.name());
+						ps.setString(3, row.description());
+						ps.setBigDecimal(4, price(row));
+						ps.setString(5, row.imageUrl());
+						ps.setBoolean(6, active(row));
+						ps.setInt(7, row.unitsInStock() == null ? 0 : row.unitsInStock());
+						if (row.categoryId() == null) {
+							ps.setNull(8, Types.BIGINT);
+						} else {
+							ps.setLong(8, row.categoryId());
+						}
+					}
+
+					@Override
+					public int getBatchSize() {
+						return rows.size();
+					}
+				}, keys);
+
+		var ids = new ArrayList<Long>(rows.size());
+		for (var key : keys.getKeyList()) {
+			// The key column is reported as ID, id or insert_id depending on the driver
+			var value = key.values().iterator().next();
+			ids.add(((Number) value).longValue());
+		}
+		return ids;
+	}
+
+	private static BigDecimal price(ProductImportRow row) {
+		return row.unitPrice() == null ? BigDecimal.ZERO : row.unitPrice();
+	}
+
+	private static boolean active(ProductImportRow row) {
+		return row.active() != null && row.active();
+	}
+
+	private Map<Long, String> loadCategoryNames() {
+		var names = new HashMap<Long, String>();
+		for (var category : _productCategoryRepository.findAll()) {
+			names.put(category.getId(), category.getCategoryName());
+		}
+		return names;
+	}
+
+	/**
+	 * Errors of one chunk, filled from the parallel validation.
+	 */
+	private static class ChunkErrors {
+		private final Map<Long, String> _rowErrors = new TreeMap<>();
+		private String _chunkError;
+
+		synchronized void fail(long rowNumber, String message) {
+			_rowErrors.put(rowNumber, message);
+		}
+
+		synchronized void rolledBack(String message) {
+			_chunkError = message;
+		}
+
+		synchronized boolean failed(long rowNumber) {
+			return _rowErrors.containsKey(rowNumber);
+		}
+
+		synchronized List<String> messages() {
+			var result = new ArrayList<String>(_rowErrors.size() + 1);
+			_rowErrors.forEach((rowNumber, message) -> result.add("row " + rowNumber + ": " + message));
+			if (_chunkError != null) {
+				result.add(_chunkError);
+			}
+			return result;
+		}
+	}
+}
@@ -0,0 +1,136 @@
+package com.thonglee.demo.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thonglee.demo.entity.Product;
+
+/**
+ * Bounded read-through cache for catalog reads (Caffeine, W-TinyLFU eviction).
+ * Entries are keyed by product id, by category page and one entry for the full list;
+ * writes go through {@link #invalidateProduct(Long, Long)}, which also bumps the product table version.
+ *
+ * Invalidating a key waits for a load of that key in flight, but removing pages by category or clearing the list
+ * does not see loads in flight. Pages and the list are therefore stamped with a generation taken before the load;
+ * an invalidation bumps the generation first, so an entry loaded from older data is dropped when it is next read.
+ * {@code demo.cache.products.ttl-ms} bounds the age of every entry as a backstop, e.g. for writes on other nodes.
+ */
+@Component
+public class ProductCatalogCache {
+	private static final String ALL_PRODUCTS = "all";
+
+	private final Cache<Long, Product> _byId;
+	private final Cache<CategoryPageKey, Stamped<Page<Product>>> _categoryPages;
+	private final Cache<String, Stamped<List<Product>>> _productList;
+	private final TableVersions _tableVersions;
+
+	// Bumped before the list / the pages of a category are invalidated
+	private final AtomicLong _listGeneration = new AtomicLong();
+	private final Map<Long, AtomicLong> _categoryGenerations = new ConcurrentHashMap<>();
+
+	public ProductCatalogCache(@Value("${demo.cache.products.max-size:10000}") long maxProducts,
+			@Value("${demo.cache.category-pages.max-size:1000}") long maxCategoryPages,
+			@Value("${demo.cache.products.ttl-ms:60000}") long ttlMillis, TableVersions tableVersions) {
+		var ttl = Duration.ofMillis(ttlMillis);
+		_byId = Caffeine.newBuilder().maximumSize(maxProducts).expireAfterWrite(ttl).recordStats().build();
+		_categoryPages = Caffeine.newBuilder().maximumSize(maxCategoryPages).expireAfterWrite(ttl).recordStats()
+				.build();
+		_productList = Caffeine.newBuilder().maximumSize(1).expireAfterWrite(ttl).recordStats().build();
+		_tableVersions = tableVersions;
+	}
+
+	public Product getProduct(Long id, Supplier<Product> loader) {
+		// a null from the loader is not cached, so unknown ids keep going to the DB
+		return _byId.get(id, key -> loader.get());
+	}
+
+	public Page<Product> getCategoryPage(Long categoryId, Pageable pageable, Supplier<Page<Product>> loader) {
+		var generation = categoryGeneration(categoryId);
+		return getStamped(_categoryPages, new CategoryPageKey(categoryId, pageable), generation::get, loader);
+	}
+
+	public List<Product> getProductList(Supplier<List<Product>> loader) {
+		return getStamped(_productList, ALL_PRODUCTS, _listGeneration::get, loader);
+	}
+
+	private static <K, V> V getStamped(Cache<K, Stamped<V>> cache, K key, LongSupplier generation, Supplier<V> loader) {
+		while (true) {
+			// The generation is read before the loader queries, so a write committed meanwhile marks the entry stale
+			var stamped = cache.get(key, k -> new Stamped<>(generation.getAsLong(), loader.get()));
+			if (stamped.generation() == generation.getAsLong()) {
+				return stamped.value();
+			}
+			// Loaded before the last invalidation; only this entry is dropped, a fresher one may already be there
+			cache.asMap().remove(key, stamped);
+		}
+	}
+
+	private AtomicLong categoryGeneration(Long categoryId) {
+		return _categoryGenerations.computeIfAbsent(categoryId, id -> new AtomicLong());
+	}
+
+	/**
+	 * Drop everything a write to one product can make stale: the product itself,
+	 * the pages of its category and the full list.
+	 */
+	public void invalidateProduct(Long productId, Long categoryId) {
+		if (productId != null) {
+			_byId.invalidate(productId);
+		}
+		if (categoryId != null) {
+			categoryGeneration(categoryId).incrementAndGet();
+			_categoryPages.asMap().keySet().removeIf(key -> categoryId.equals(key.categoryId()));
+		}
+		_listGeneration.incrementAndGet();
+		_productList.invalidateAll();
+		_tableVersions.bump(TableVersions.Table.PRODUCT);
+	}
+
+	public void invalidateAll() {
+		_byId.invalidateAll();
+		_categoryGenerations.values().forEach(AtomicLong::incrementAndGet);
+		_categoryPages.invalidateAll();
+		_listGeneration.incrementAndGet();
+		_productList.invalidateAll();
+		_tableVersions.bump(TableVersions.Table.PRODUCT);
+	}
+
+	public Map<String, Map<String, Object>> stats() {
+		var result = new LinkedHashMap<String, Map<String, Object>>();
+		result.put("products", stats(_byId));
+		result.put("categoryPages", stats(_categoryPages));
+		result.put("productList", stats(_productList));
+		return result;
+	}
+
+	private static Map<String, Object> stats(Cache<?, ?> cache) {
+		var stats = cache.stats();
+		var result = new LinkedHashMap<String, Object>();
+		result.put("size", cache.estimatedSize());
+		result.put("hits", stats.hitCount());
+		result.put("misses", stats.missCount());
+		result.put("hitRate", stats.hitRate());
+		result.put("evictions", stats.evictionCount());
+		result.put("averageLoadNanos", stats.averageLoadPenalty());
+		return result;
+	}
+
+	private record CategoryPageKey(Long categoryId, Pageable pageable) {
+	}
+
+	private record Stamped<V>(long generation, V value) {
+	}
+}
@@ -0,0 +1,146 @@
+package com.thonglee.demo.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thonglee.demo.dao.ProductRepository;
+import com.thonglee.demo.entity.Product;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Full catalog export. Rows come from a forward-only cursor and the persistence context is cleared
+ * every {@code demo.export.clear-interval} rows, so heap use does not depend on the catalog size.
+ * Writes block while the client is slow, which in turn stops the cursor: that is the backpressure.
+ */
+@Service
+public class ProductExportService {
+	private static final String[] CSV_COLUMNS = { "id", "sku", "name", "description", "unitPrice", "imageUrl",
+			"active", "unitsInStock", "categoryId", "dateCreated", "lastUpdated" };
+
+	public enum Format {
+		CSV, NDJSON
+	}
+
+	@Autowired
+	private ProductRepository _productRepository;
+
+	@Autowired
+	private EntityManager _entityManager;
+
+	@Autowired
+	private ObjectMapper _objectMapper;
+
+	@Value("${demo.export.clear-interval:1000}")
+	private int _clearInterval;
+
+	@Transactional(readOnly = true)
+	public long export(OutputStream out, Format format) throws IOException {
+		var writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+		var generator = format == Format.NDJSON ? ndjsonGenerator(writer) : null;
+		if (format == Format.CSV) {
+			writer.write(String.join(",", CSV_COLUMNS));
+			writer.write('\n');
+		}
+
+		var rows = new long[1];
+		try (var products = _productRepository.streamAllWithCategory()) {
+			products.forEach(product -> {
+				try {
+					if (generator != null) {
+						writeNdjson(generator, product);
+					} else {
+						writeCsv(writer, product);
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				if (++rows[0] % _clearInterval == 0) {
+					// Detach what was written so far, the cursor keeps its position
+					_entityManager.clear();
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+
+		if (generator != null) {
+			generator.flush();
+		}
+		writer.flush();
+		return rows[0];
+	}
+
+	private JsonGenerator ndjsonGenerator(Writer writer) throws IOException {
+		var generator = _objectMapper.createGenerator(writer);
+		generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		return generator;
+	}
+
+	private static void writeNdjson(JsonGenerator generator, Product product) throws IOException {
+		generator.writeStartObject();
+		generator.writeNumberField("id", product.getId());
+		generator.writeStringField("sku", product.getSku());
+		generator.writeStringField("name", product.getName());
+		generator.writeStringField("description", product.getDescription());
+		generator.writeObjectField("unitPrice", product.getUnnitPrice());
+		generator.writeStringField("imageUrl", product.getImageUrl());
+		generator.writeBooleanField("active", product.isActive());
+		generator.writeNumberField("unitsInStock", product.getUnitsInStock());
+		generator.writeObjectField("categoryId", product.getCategory().getId());
+		generator.writeObjectField("dateCreated", product.getDateCreated());
+		generator.writeObjectField("lastUpdated", product.getLastUpdated());
+		generator.writeEndObject();
+		generator.writeRaw('\n');
+	}
+
+	private static void writeCsv(Writer writer, Product product) throws IOException {
+		writer.write(String.valueOf(product.getId()));
+		writer.write(',');
+		writeCsvText(writer, product.getSku());
+		writer.write(',');
+		writeCsvText(writer, product.getName());
+		writer.write(',');
+		writeCsvText(writer, product.getDescription());
+		writer.write(',');
+		writer.write(product.getUnnitPrice() == null ? "" : product.getUnnitPrice().toPlainString());
+		writer.write(',');
+		writeCsvText(writer, product.getImageUrl());
+		writer.write(',');
+		writer.write(String.valueOf(product.isActive()));
+		writer.write(',');
+		writer.write(String.valueOf(product.getUnitsInStock()));
+		writer.write(',');
+		writer.write(String.valueOf(product.getCategory().getId()));
+		writer.write(',');
+		writer.write(product.getDateCreated() == null ? "" : product.getDateCreated().toString());
+		writer.write(',');
+		writer.write(product.getLastUpdated() == null ? "" : product.getLastUpdated().toString());
+		writer.write('\n');
+	}
+
+	private static void writeCsvText(Writer writer, String value) throws IOException {
+		if (value == null) {
+			return;
+		}
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+			writer.write(value);
+			return;
+		}
+		writer.write('"');
+		writer.write(value.replace("\"", "\"\""));
+		writer.write('"');
+	}
+}
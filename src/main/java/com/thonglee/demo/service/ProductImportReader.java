@@ -0,0 +1,245 @@
+package com.thonglee.demo.service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thonglee.demo.entity.ProductImportRow;
+
+/**
+ * Reads bulk import rows one at a time, so an upload is never held in memory as a whole.
+ */
+abstract class ProductImportReader implements Closeable {
+
+	/**
+	 * A parsed row, or the reason it could not be parsed.
+	 */
+	record ParsedRow(long rowNumber, ProductImportRow row, String error) {
+	}
+
+	private long _rowNumber;
+
+	/**
+	 * @return the next row, or null at the end of the input
+	 * @throws IOException when the input cannot be read any further (broken JSON, I/O error)
+	 */
+	abstract ParsedRow next() throws IOException;
+
+	protected long nextRowNumber() {
+		return ++_rowNumber;
+	}
+
+	static ProductImportReader jsonArray(InputStream in, ObjectMapper objectMapper) throws IOException {
+		return new JsonArrayReader(objectMapper.getFactory().createParser(in), objectMapper);
+	}
+
+	static ProductImportReader ndjson(InputStream in, ObjectMapper objectMapper) {
+		return new NdjsonReader(reader(in), objectMapper);
+	}
+
+	static ProductImportReader csv(InputStream in) throws IOException {
+		return new CsvReader(reader(in));
+	}
+
+	private static BufferedReader reader(InputStream in) {
+		return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+	}
+
+	private static class JsonArrayReader extends ProductImportReader {
+		private final JsonParser _parser;
+		private final ObjectMapper _objectMapper;
+
+		JsonArrayReader(JsonParser parser, ObjectMapper objectMapper) throws IOException {
+			_parser = parser;
+			_objectMapper = objectMapper;
+			if (_parser.nextToken() != JsonToken.START_ARRAY) {
+				throw new IOException("Expected a JSON array of products");
+			}
+		}
+
+		@Override
+		ParsedRow next() throws IOException {
+			var token = _parser.nextToken();
+			if (token == JsonToken.END_ARRAY) {
+				return null;
+			}
+			if (token == null) {
+				throw new IOException("Unexpected end of input, the JSON array is not closed");
+			}
+
+			var rowNumber = nextRowNumber();
+			if (token != JsonToken.START_OBJECT) {
+				var found = switch (token) {
+				case START_ARRAY -> "an array";
+				case VALUE_NULL -> "null";
+				default -> "'" + _parser.getText() + "'";
+				};
+				// A nested array is skipped as a whole, a scalar is a single token
+				_parser.skipChildren();
+				return new ParsedRow(rowNumber, null, "expected a product object, got " + found);
+			}
+			// Read as a tree first: broken JSON still ends the upload, a wrong field type only fails this row
+			JsonNode element = _objectMapper.readTree(_parser);
+			try {
+				return new ParsedRow(rowNumber, _objectMapper.treeToValue(element, ProductImportRow.class), null);
+			} catch (JsonProcessingException e) {
+				return new ParsedRow(rowNumber, null, e.getOriginalMessage());
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			_parser.close();
+		}
+	}
+
+	private static class NdjsonReader extends ProductImportReader {
+		private final BufferedReader _reader;
+		private final ObjectMapper _objectMapper;
+
+		NdjsonReader(BufferedReader reader, ObjectMapper objectMapper) {
+			_reader = reader;
+			_objectMapper = objectMapper;
+		}
+
+		@Override
+		ParsedRow next() throws IOException {
+			String line;
+			do {
+				line = _reader.readLine();
+				if (line == null) {
+					return null;
+				}
+			} while (line.isBlank());
+
+			var rowNumber = nextRowNumber();
+			try {
+				return new ParsedRow(rowNumber, _objectMapper.readValue(line, ProductImportRow.class), null);
+			} catch (JsonProcessingException e) {
+				return new ParsedRow(rowNumber, null, e.getOriginalMessage());
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			_reader.close();
+		}
+	}
+
+	/**
+	 * CSV with a header line naming the {@link ProductImportRow} fields; double quotes escape commas and quotes.
+	 */
+	private static class CsvReader extends ProductImportReader {
+		private final BufferedReader _reader;
+		private final Map<String, Integer> _columns = new HashMap<>();
+
+		CsvReader(BufferedReader reader) throws IOException {
+			_reader = reader;
+			var header = _reader.readLine();
+			if (header == null) {
+				throw new IOException("CSV upload has no header line");
+			}
+			var names = split(header);
+			for (int i = 0; i < names.size(); i++) {
+				_columns.put(names.get(i).trim(), i);
+			}
+		}
+
+		@Override
+		ParsedRow next() throws IOException {
+			String line;
+			do {
+				line = _reader.readLine();
+				if (line == null) {
+					return null;
+				}
+			} while (line.isBlank());
+
+			var rowNumber = nextRowNumber();
+			try {
+				var values = split(line);
+				var row = new ProductImportRow(text(values, "sku"), text(values, "name"), text(values, "description"),
+						decimal(values, "unitPrice"), text(values, "imageUrl"), bool(values, "active"),
+						integer(values, "unitsInStock"), longValue(values, "categoryId"));
+				return new ParsedRow(rowNumber, row, null);
+			} catch (IllegalArgumentException e) {
+				return new ParsedRow(rowNumber, null, e.getMessage());
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			_reader.close();
+		}
+
+		private String text(List<String> values, String column) {
+			var index = _columns.get(column);
+			if (index == null || index >= values.size()) {
+				return null;
+			}
+			var value = values.get(index);
+			return value.isEmpty() ? null : value;
+		}
+
+		private BigDecimal decimal(List<String> values, String column) {
+			var value = text(values, column);
+			return value == null ? null : new BigDecimal(value.trim());
+		}
+
+		private Integer integer(List<String> values, String column) {
+			var value = text(values, column);
+			return value == null ? null : Integer.valueOf(value.trim());
+		}
+
+		private Long longValue(List<String> values, String column) {
+			var value = text(values, column);
+			return value == null ? null : Long.valueOf(value.trim());
+		}
+
+		private Boolean bool(List<String> values, String column) {
+			var value = text(values, column);
+			return value == null ? null : Boolean.valueOf(value.trim());
+		}
+
+		private static List<String> split(String line) {
+			var values = new ArrayList<String>();
+			var current = new StringBuilder();
+			var quoted = false;
+			for (int i = 0; i < line.length(); i++) {
+				var c = line.charAt(i);
+				if (quoted) {
+					if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+						current.append('"');
+						i++;
+					} else if (c == '"') {
+						quoted = false;
+					} else {
+						current.append(c);
+					}
+				} else if (c == '"') {
+					quoted = true;
+				} else if (c == ',') {
+					values.add(current.toString());
+					current.setLength(0);
+				} else {
+					current.append(c);
+				}
+			}
+			values.add(current.toString());
+			return values;
+		}
+	}
+}
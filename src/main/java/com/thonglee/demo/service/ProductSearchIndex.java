@@ -0,0 +1,259 @@
+package com.thonglee.demo.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import com.thonglee.demo.dao.ProductRepository;
+import com.thonglee.demo.entity.Product;
+
+/**
+ * In-memory trigram index over product name and sku, replacing {@code LIKE '%x%'} scans.
+ * Built in the background after startup and kept up to date by {@link ProductServiceImpl} on every write;
+ * {@link #isReady()} is false until the build has finished.
+ *
+ * Queries shorter than a trigram are answered from a map of the 1 and 2 character prefixes of name and sku,
+ * so they find prefix matches only.
+ */
+@Component
+public class ProductSearchIndex {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ProductSearchIndex.class);
+	private static final int GRAM = 3;
+	private static final int LOAD_BATCH_SIZE = 1000;
+
+	// Lower rank sorts first
+	private static final int RANK_EXACT = 0;
+	private static final int RANK_PREFIX = 1;
+	private static final int RANK_SUBSTRING = 2;
+
+	@Autowired
+	private ProductRepository _productRepository;
+
+	private final Map<Long, Entry> _entries = new ConcurrentHashMap<>();
+	private final Map<String, Set<Long>> _postings = new ConcurrentHashMap<>();
+	// Prefixes shorter than GRAM of name and sku
+	private final Map<String, Set<Long>> _prefixes = new ConcurrentHashMap<>();
+
+	private volatile boolean _ready;
+	// Written (indexed or removed) while the build runs; the build's rows for them may be older, so it skips them
+	private final Set<Long> _writtenDuringBuild = new HashSet<>();
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void buildInBackground() {
+		// A full table walk, readiness of the application must not wait for it
+		var thread = new Thread(() -> {
+			try {
+				build();
+			} catch (RuntimeException e) {
+				LOGGER.error("Building the product search index failed, search stays on the database", e);
+			}
+		}, "product-search-index");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private void build() {
+		// Walk the table with the keyset summaries, so startup never holds the whole catalog as entities
+		var afterId = 0L;
+		while (true) {
+			var batch = _productRepository.findSummariesAfter(afterId, Limit.of(LOAD_BATCH_SIZE));
+			synchronized (this) {
+				for (var summary : batch) {
+					if (!_writtenDuringBuild.contains(summary.id())) {
+						put(summary.id(), summary.name(), summary.sku());
+					}
+				}
+			}
+			if (batch.size() < LOAD_BATCH_SIZE) {
+				break;
+			}
+			afterId = batch.get(batch.size() - 1).id();
+		}
+		synchronized (this) {
+			_writtenDuringBuild.clear();
+			_ready = true;
+		}
+		LOGGER.info("Product search index built: {} products", _entries.size());
+	}
+
+	public boolean isReady() {
+		return _ready;
+	}
+
+	public void index(Product product) {
+		if (product.getId() != null) {
+			index(product.getId(), product.getName(), product.getSku());
+		}
+	}
+
+	/**
+	 * For rows written around JPA (bulk import).
+	 */
+	public synchronized void index(Long id, String name, String sku) {
+		markWritten(id);
+		put(id, name, sku);
+	}
+
+	public synchronized void remove(Long productId) {
+		markWritten(productId);
+		var old = _entries.remove(productId);
+		if (old != null) {
+			unlinkGrams(productId, old);
+		}
+	}
+
+	public int size() {
+		return _entries.size();
+	}
+
+	private void markWritten(Long productId) {
+		if (!_ready) {
+			_writtenDuringBuild.add(productId);
+		}
+	}
+
+	/**
+	 * Ids of products whose name or sku contains {@code query} (case-insensitive),
+	 * best match first: exact, then prefix, then substring; shorter names and lower ids break ties.
+	 */
+	public List<Long> search(String query) {
+		var needle = normalize(query);
+		if (needle.isEmpty()) {
+			return List.of();
+		}
+
+		var hits = new ArrayList<Hit>();
+		for (var id : candidates(needle)) {
+			var entry = _entries.get(id);
+			if (entry == null) {
+				continue;
+			}
+			var rank = Math.min(rank(entry.name(), needle), rank(entry.sku(), needle));
+			if (rank <= RANK_SUBSTRING) {
+				hits.add(new Hit(id, rank, entry.name().length()));
+			}
+		}
+		hits.sort(Comparator.comparingInt(Hit::rank).thenComparingInt(Hit::length).thenComparingLong(Hit::id));
+
+		var ids = new ArrayList<Long>(hits.size());
+		for (var hit : hits) {
+			ids.add(hit.id());
+		}
+		return ids;
+	}
+
+	private Iterable<Long> candidates(String needle) {
+		if (needle.length() < GRAM) {
+			// Too short for a trigram lookup: prefix matches only
+			var posting = _prefixes.get(needle);
+			return posting == null ? List.of() : new ArrayList<>(posting);
+		}
+
+		// Intersect posting lists starting from the rarest gram, the verification in search() drops false positives
+		List<Set<Long>> lists = new ArrayList<>();
+		for (var gram : grams(needle)) {
+			var posting = _postings.get(gram);
+			if (posting == null) {
+				return List.of();
+			}
+			lists.add(posting);
+		}
+		lists.sort(Comparator.comparingInt(Set::size));
+
+		var result = new HashSet<>(lists.get(0));
+		for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+			result.retainAll(lists.get(i));
+		}
+		return result;
+	}
+
+	private synchronized void put(Long id, String name, String sku) {
+		var entry = new Entry(normalize(name), normalize(sku));
+		var old = _entries.put(id, entry);
+		if (old != null) {
+			unlinkGrams(id, old);
+		}
+		for (var gram : entry.grams()) {
+			_postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(id);
+		}
+		for (var prefix : entry.prefixes()) {
+			_prefixes.computeIfAbsent(prefix, key -> ConcurrentHashMap.newKeySet()).add(id);
+		}
+	}
+
+	private void unlinkGrams(Long id, Entry entry) {
+		for (var gram : entry.grams()) {
+			unlink(_postings, gram, id);
+		}
+		for (var prefix : entry.prefixes()) {
+			unlink(_prefixes, prefix, id);
+		}
+	}
+
+	private static void unlink(Map<String, Set<Long>> index, String key, Long id) {
+		index.computeIfPresent(key, (k, ids) -> {
+			ids.remove(id);
+			return ids.isEmpty() ? null : ids;
+		});
+	}
+
+	private static int rank(String text, String needle) {
+		if (text.equals(needle)) {
+			return RANK_EXACT;
+		}
+		if (text.startsWith(needle)) {
+			return RANK_PREFIX;
+		}
+		return text.contains(needle) ? RANK_SUBSTRING : Integer.MAX_VALUE;
+	}
+
+	private static Set<String> grams(String text) {
+		var result = new HashSet<String>();
+		for (int i = 0; i + GRAM <= text.length(); i++) {
+			result.add(text.substring(i, i + GRAM));
+		}
+		return result;
+	}
+
+	private static Set<String> prefixes(String text) {
+		var result = new HashSet<String>();
+		for (int length = 1; length < GRAM && length <= text.length(); length++) {
+			result.add(text.substring(0, length));
+		}
+		return result;
+	}
+
+	private static String normalize(String text) {
+		return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+	}
+
+	private record Entry(String name, String sku) {
+		Set<String> grams() {
+			var result = ProductSearchIndex.grams(name);
+			result.addAll(ProductSearchIndex.grams(sku));
+			return result;
+		}
+
+		Set<String> prefixes() {
+			var result = ProductSearchIndex.prefixes(name);
+			result.addAll(ProductSearchIndex.prefixes(sku));
+			return result;
+		}
+	}
+
+	private record Hit(Long id, int rank, int length) {
+	}
+}
@@ -2,7 +2,11 @@ package com.thonglee.demo.service;
 
 import java.util.List;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
 import com.thonglee.demo.entity.Product;
+import com.thonglee.demo.entity.ProductCursorPage;
 
 public interface ProductService {
 	// Save operation 
@@ -10,6 +14,18 @@ public interface ProductService {
   
     // Read operation 
     List<Product> fetchProductList(); 
+    
+    // Read operation, single product (null when not found)
+    Product fetchProductById(Long productId); 
+    
+    // Read operation, one page of a category
+    Page<Product> fetchProductsByCategory(Long categoryId, Pageable pageable); 
+    
+    // Read operation, ranked substring/prefix search on name and sku
+    Page<Product> searchProducts(String query, Pageable pageable); 
+    
+    // Read operation, keyset page after the given id (null = first page), optionally inside one category
+    ProductCursorPage fetchProductPage(Long afterId, Long categoryId, int size); 
   
     // Update operation 
     Product updateProduct(Product department, Long departmentId); 
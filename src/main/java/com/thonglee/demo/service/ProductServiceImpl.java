@@ -1,39 +1,173 @@
 package com.thonglee.demo.service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import com.thonglee.demo.dao.ProductRepository;
 import com.thonglee.demo.entity.Product;
+import com.thonglee.demo.entity.ProductCursorPage;
 
 @Service
 public class ProductServiceImpl implements ProductService {
 	
 	@Autowired
     private ProductRepository departmentRepository; 
+	
+	@Autowired
+	private ProductCatalogCache productCatalogCache;
+	
+	@Autowired
+	private ProductSearchIndex productSearchIndex;
+	
+	@Autowired
+	private InventoryReservationService inventoryReservationService;
+	
+	@Autowired
+	private CategorySummaryIndex categorySummaryIndex;
+	
+	private static final int MAX_PAGE_SIZE = 1000;
 
 	@Override
 	public Product saveProduct(Product department) {
-		return departmentRepository.save(department);
+		// A save with an id overwrites that product, its old contribution leaves the category summary
+		var old = department.getId() == null ? null
+				: CategorySummaryIndex.Contribution.of(departmentRepository.findById(department.getId()).orElse(null));
+		var categoryIds = Arrays.asList(old == null ? null : old.categoryId(), categoryIdOf(department));
+		categorySummaryIndex.beginWrite(categoryIds);
+		try {
+			var saved = departmentRepository.save(department);
+			productCatalogCache.invalidateProduct(saved.getId(), categoryIdOf(saved));
+			productSearchIndex.index(saved);
+			categorySummaryIndex.replace(old, CategorySummaryIndex.Contribution.of(saved));
+			return saved;
+		} finally {
+			categorySummaryIndex.endWrite(categoryIds);
+		}
 	}
 
 	@Override
 	public List<Product> fetchProductList() {
 		System.out.println("GET");
-		return (List<Product>) departmentRepository.findAll(); 
+		return productCatalogCache.getProductList(() -> (List<Product>) departmentRepository.findAll()); 
+	}
+
+	@Override
+	public Product fetchProductById(Long productId) {
+		return productCatalogCache.getProduct(productId, () -> departmentRepository.findById(productId).orElse(null));
+	}
+
+	@Override
+	public Page<Product> fetchProductsByCategory(Long categoryId, Pageable pageable) {
+		return productCatalogCache.getCategoryPage(categoryId, pageable,
+				() -> departmentRepository.findByCategoryId(categoryId, pageable));
+	}
+
+	@Override
+	public Page<Product> searchProducts(String query, Pageable pageable) {
+		if (!productSearchIndex.isReady()) {
+			// Still building after startup: the old LIKE query, on the name only and without ranking
+			return departmentRepository.findByNameContaining(query, pageable);
+		}
+		var ids = productSearchIndex.search(query);
+		if (pageable.isUnpaged()) {
+			return new PageImpl<>(loadInOrder(ids), pageable, ids.size());
+		}
+		var from = (int) Math.min(pageable.getOffset(), ids.size());
+		var to = Math.min(from + pageable.getPageSize(), ids.size());
+		return new PageImpl<>(loadInOrder(ids.subList(from, to)), pageable, ids.size());
+	}
+
+	@Override
+	public ProductCursorPage fetchProductPage(Long afterId, Long categoryId, int size) {
+		var pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+		var after = afterId == null ? 0L : afterId;
+		var items = categoryId == null
+				? departmentRepository.findSummariesAfter(after, Limit.of(pageSize))
+				: departmentRepository.findSummariesByCategoryAfter(categoryId, after, Limit.of(pageSize));
+		var nextCursor = items.size() < pageSize ? null : items.get(items.size() - 1).id();
+		return new ProductCursorPage(items, nextCursor);
 	}
 
 	@Override
 	public Product updateProduct(Product department, Long departmentId) {
-		System.out.println("UPDATE");
-		return null;
+		var existing = departmentRepository.findById(departmentId).orElse(null);
+		if (existing == null) {
+			return null;
+		}
+		var oldCategoryId = categoryIdOf(existing);
+		// save() may update this very instance, take what it counts for in the summary now
+		var oldContribution = CategorySummaryIndex.Contribution.of(existing);
+		
+		department.setId(departmentId);
+		department.setDateCreated(existing.getDateCreated());
+		if (department.getCategory() == null) {
+			department.setCategory(existing.getCategory());
+		}
+		var categoryIds = Arrays.asList(oldCategoryId, categoryIdOf(department));
+		categorySummaryIndex.beginWrite(categoryIds);
+		try {
+			// Pending reservations are written first, the update then sets units_in_stock to an absolute value
+			var saved = inventoryReservationService.replaceStock(departmentId, () -> departmentRepository.save(department));
+			
+			// The product may have moved, so both the old and the new category pages are stale
+			productCatalogCache.invalidateProduct(departmentId, oldCategoryId);
+			productCatalogCache.invalidateProduct(departmentId, categoryIdOf(saved));
+			productSearchIndex.index(saved);
+			categorySummaryIndex.replace(oldContribution, CategorySummaryIndex.Contribution.of(saved));
+			return saved;
+		} finally {
+			categorySummaryIndex.endWrite(categoryIds);
+		}
 	}
 
 	@Override
 	public void deleteProductById(Long departmentId) {
-		System.out.println("DELETE");
+		var existing = departmentRepository.findById(departmentId).orElse(null);
+		if (existing == null) {
+			return;
+		}
+		var categoryIds = Arrays.asList(categoryIdOf(existing));
+		categorySummaryIndex.beginWrite(categoryIds);
+		try {
+			inventoryReservationService.replaceStock(departmentId, () -> {
+				departmentRepository.delete(existing);
+				return null;
+			});
+			productCatalogCache.invalidateProduct(departmentId, categoryIdOf(existing));
+			productSearchIndex.remove(departmentId);
+			categorySummaryIndex.remove(CategorySummaryIndex.Contribution.of(existing));
+		} finally {
+			categorySummaryIndex.endWrite(categoryIds);
+		}
+	}
+	
+	// findAllById gives no order guarantee, put the rows back in ranking order
+	private List<Product> loadInOrder(List<Long> ids) {
+		var byId = new HashMap<Long, Product>();
+		for (var product : departmentRepository.findAllById(ids)) {
+			byId.put(product.getId(), product);
+		}
+		var result = new ArrayList<Product>(ids.size());
+		for (var id : ids) {
+			var product = byId.get(id);
+			if (product != null) {
+				result.add(product);
+			}
+		}
+		return result;
+	}
+	
+	private static Long categoryIdOf(Product product) {
+		return product.getCategory() == null ? null : product.getCategory().getId();
 	}
 	
 }
@@ -0,0 +1,53 @@
+package com.thonglee.demo.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.thonglee.demo.entity.Country;
+import com.thonglee.demo.entity.ProductCategory;
+import com.thonglee.demo.entity.State;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Version stamp of the reference data (countries, states, product categories).
+ * ETags of the reference data endpoints are derived from it, so any bump makes every client refetch.
+ * Starts at the boot time, so a restart never reuses the ETags of an older process.
+ */
+@Component
+public class ReferenceDataVersion {
+	private final AtomicLong _version = new AtomicLong(System.currentTimeMillis());
+
+	// Looked up lazily: entity listeners (and with them this bean) are created while the factory is built
+	@Autowired
+	private ObjectProvider<EntityManagerFactory> _entityManagerFactory;
+
+	public long current() {
+		return _version.get();
+	}
+
+	/**
+	 * Called after a write through JPA, Hibernate already keeps its second-level cache in sync.
+	 */
+	public long bump() {
+		return _version.incrementAndGet();
+	}
+
+	/**
+	 * For changes made outside the application (SQL scripts): drop the cached rows and queries too.
+	 */
+	public long invalidate() {
+		var cache = _entityManagerFactory.getObject().unwrap(SessionFactory.class).getCache();
+		cache.evict(Country.class);
+		cache.evict(State.class);
+		cache.evict(ProductCategory.class);
+		// Country.states is a collection region of its own
+		cache.evictCollectionData(Country.class.getName() + ".states");
+		cache.evictQueryRegions();
+		return bump();
+	}
+}
@@ -0,0 +1,173 @@
+package com.thonglee.demo.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Available units of one product split over padded stripes, so concurrent buyers of a hot SKU
+ * mostly CAS different cache lines. Units taken since the last flush are not counted separately:
+ * they are the available units at the previous drain minus the available units now.
+ *
+ * The monitor guards everything that looks at more than one stripe (pooled reservations, releases,
+ * drains) and the handoff to a new counter: {@link #retire()} seals every stripe, so a reservation
+ * either landed before the seal and is part of the final count, or fails and sees {@link #isRetired()}.
+ */
+class StripedStock {
+	// 8 longs = one 64-byte cache line per stripe
+	private static final int PAD = 8;
+	// Stored in every stripe of a retired counter; below any quantity, so single-stripe reservations fail
+	private static final long SEALED = Long.MIN_VALUE;
+
+	private final int _stripes;
+	private final long _units;
+	// Category of the product when the counter was loaded; a move to another category replaces the counter
+	private final Long _categoryId;
+	private final AtomicLongArray _available;
+	// Available units when taken units were last drained, guarded by the monitor
+	private long _drainedAvailable;
+	private volatile boolean _retired;
+	// Stripe values at retire(), put back by reopen()
+	private long[] _sealed;
+
+	StripedStock(long units, Long categoryId, int stripes) {
+		_stripes = stripes;
+		_units = units;
+		_categoryId = categoryId;
+		_available = new AtomicLongArray(stripes * PAD);
+		_drainedAvailable = units;
+		spreadAdd(units);
+	}
+
+	/**
+	 * @return false when fewer than {@code quantity} units are left or the counter was retired
+	 */
+	boolean tryReserve(int quantity) {
+		var start = probe();
+		for (int i = 0; i < _stripes; i++) {
+			var slot = ((start + i) % _stripes) * PAD;
+			var current = _available.get(slot);
+			while (current >= quantity) {
+				if (_available.compareAndSet(slot, current, current - quantity)) {
+					return true;
+				}
+				current = _available.get(slot);
+			}
+		}
+		// Enough units may exist, just not in a single stripe
+		return reserveAcrossStripes(quantity);
+	}
+
+	/**
+	 * @return false when the counter was retired, nothing is released then
+	 * @throws IllegalArgumentException when more units would come back than were reserved from this counter
+	 */
+	synchronized boolean release(int quantity) {
+		if (_retired) {
+			return false;
+		}
+		var reserved = _units - available();
+		if (quantity > reserved) {
+			throw new IllegalArgumentException("only " + reserved + " units are reserved");
+		}
+		_available.addAndGet(probe() * PAD, quantity);
+		return true;
+	}
+
+	long available() {
+		long sum = 0;
+		for (int i = 0; i < _stripes; i++) {
+			sum += _available.get(i * PAD);
+		}
+		return sum;
+	}
+
+	Long categoryId() {
+		return _categoryId;
+	}
+
+	boolean isRetired() {
+		return _retired;
+	}
+
+	/**
+	 * Net units taken since the previous call. Every stripe only moves by whole reservations, so each one
+	 * is counted by exactly one drain, whichever stripe it hit.
+	 */
+	synchronized long drainTaken() {
+		var available = available();
+		var taken = _drainedAvailable - available;
+		_drainedAvailable = available;
+		return taken;
+	}
+
+	/**
+	 * Put back units whose flush failed, they go out with the next flush.
+	 */
+	synchronized void restoreTaken(long units) {
+		_drainedAvailable += units;
+	}
+
+	/**
+	 * Seal all stripes and drain them for the last time. Callers hold the monitor until the counter
+	 * is replaced, so releases and pooled reservations wait for its successor.
+	 *
+	 * @return net units taken since the previous drain
+	 */
+	synchronized long retire() {
+		_retired = true;
+		_sealed = new long[_stripes];
+		long available = 0;
+		for (int i = 0; i < _stripes; i++) {
+			_sealed[i] = _available.getAndSet(i * PAD, SEALED);
+			available += _sealed[i];
+		}
+		var taken = _drainedAvailable - available;
+		_drainedAvailable = available;
+		return taken;
+	}
+
+	/**
+	 * Returns once the caller of {@link #retire()} has let go of the monitor, i.e. the counter was replaced
+	 * or reopened.
+	 */
+	synchronized void awaitHandoff() {
+	}
+
+	/**
+	 * Undo {@link #retire()} when the handoff failed; {@code pendingTaken} goes out with the next flush.
+	 */
+	synchronized void reopen(long pendingTaken) {
+		for (int i = 0; i < _stripes; i++) {
+			_available.set(i * PAD, _sealed[i]);
+		}
+		_sealed = null;
+		_drainedAvailable += pendingTaken;
+		_retired = false;
+	}
+
+	private synchronized boolean reserveAcrossStripes(int quantity) {
+		if (_retired) {
+			return false;
+		}
+		long pooled = 0;
+		for (int i = 0; i < _stripes; i++) {
+			pooled += _available.getAndSet(i * PAD, 0);
+		}
+		var enough = pooled >= quantity;
+		if (enough) {
+			pooled -= quantity;
+		}
+		spreadAdd(pooled);
+		return enough;
+	}
+
+	private void spreadAdd(long units) {
+		var share = units / _stripes;
+		for (int i = 0; i < _stripes; i++) {
+			_available.addAndGet(i * PAD, i == 0 ? share + units % _stripes : share);
+		}
+	}
+
+	private int probe() {
+		return (int) (Thread.currentThread().getId() % _stripes);
+	}
+}
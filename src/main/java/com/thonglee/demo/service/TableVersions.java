@@ -0,0 +1,36 @@
+package com.thonglee.demo.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Change counters of the catalog tables, the cheap source of the listing endpoints' ETags
+ * (see VersionETagFilter). Every writer of a table bumps its counter; like {@link ReferenceDataVersion}
+ * they start at the boot time, so a restart never reuses the ETags of an older process.
+ */
+@Component
+public class TableVersions {
+	public enum Table {
+		PRODUCT, PRODUCT_UUID
+	}
+
+	private final Map<Table, AtomicLong> _versions = new EnumMap<>(Table.class);
+
+	public TableVersions() {
+		var boot = System.currentTimeMillis();
+		for (var table : Table.values()) {
+			_versions.put(table, new AtomicLong(boot));
+		}
+	}
+
+	public long current(Table table) {
+		return _versions.get(table).get();
+	}
+
+	public long bump(Table table) {
+		return _versions.get(table).incrementAndGet();
+	}
+}
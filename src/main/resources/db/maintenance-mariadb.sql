@@ -0,0 +1,34 @@
+-- Tables of the catalog maintenance job (CatalogMaintenanceService), create them next to the catalog tables.
+-- Safe to run again: existing tables and their checkpoints are kept.
+
+CREATE TABLE IF NOT EXISTS maintenance_run (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  task VARCHAR(32) NOT NULL,
+  parameter VARCHAR(255) DEFAULT NULL,
+  min_id BIGINT NOT NULL,
+  max_id BIGINT NOT NULL,
+  chunk_size INT NOT NULL,
+  total_chunks INT NOT NULL,
+  status VARCHAR(16) NOT NULL,
+  rows_updated BIGINT NOT NULL DEFAULT 0,
+  started_at DATETIME(6) DEFAULT NULL,
+  finished_at DATETIME(6) DEFAULT NULL,
+  claimed_at DATETIME(6) DEFAULT NULL,
+  PRIMARY KEY (id),
+  -- startOrResume: latest unfinished run of a task and parameter
+  KEY idx_maintenance_run_task (task, parameter, status)
+) ENGINE=InnoDB;
+
+-- Tables created before runs were claimed
+ALTER TABLE maintenance_run ADD COLUMN IF NOT EXISTS claimed_at DATETIME(6) DEFAULT NULL AFTER finished_at;
+
+CREATE TABLE IF NOT EXISTS maintenance_chunk (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  run_id BIGINT NOT NULL,
+  chunk_index INT NOT NULL,
+  rows_updated INT NOT NULL,
+  completed_at DATETIME(6) DEFAULT NULL,
+  PRIMARY KEY (id),
+  -- A chunk is recorded once per run; also the lookup of finishedChunks
+  UNIQUE KEY uk_maintenance_chunk_run_chunk (run_id, chunk_index)
+) ENGINE=InnoDB;
@@ -0,0 +1,145 @@
+package com.thonglee.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.thonglee.demo.dao.MaintenanceRunRepository;
+import com.thonglee.demo.dao.ProductCategoryRepository;
+import com.thonglee.demo.dao.ProductRepository;
+import com.thonglee.demo.entity.MaintenanceRun;
+import com.thonglee.demo.entity.Product;
+import com.thonglee.demo.entity.ProductCategory;
+import com.thonglee.demo.service.CatalogMaintenanceService;
+
+/**
+ * Chunked maintenance runs: every chunk is applied once, also across an interrupted run that is resumed
+ * and a run another node holds.
+ */
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:maintenance;MODE=MariaDB;DB_CLOSE_DELAY=-1",
+		"demo.maintenance.chunk-size=10", "demo.maintenance.parallelism=3" })
+@ActiveProfiles("test")
+class CatalogMaintenanceTests {
+	private static final int PRODUCTS = 35;
+
+	@Autowired
+	private CatalogMaintenanceService catalogMaintenanceService;
+
+	@Autowired
+	private MaintenanceRunRepository maintenanceRunRepository;
+
+	@Autowired
+	private ProductCategoryRepository productCategoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("DELETE FROM maintenance_chunk");
+		maintenanceRunRepository.deleteAll();
+		productRepository.deleteAll();
+
+		var category = new ProductCategory();
+		category.setCategoryName("Maintenance");
+		category = productCategoryRepository.save(category);
+		for (int p = 1; p <= PRODUCTS; p++) {
+			var product = new Product();
+			product.setSku("MNT-" + p);
+			product.setName("Maintenance " + p);
+			product.setUnnitPrice(new BigDecimal("10.00"));
+			product.setActive(true);
+			product.setUnitsInStock(p % 5 == 0 ? 0 : 3);
+			product.setCategory(category);
+			productRepository.save(product);
+		}
+	}
+
+	@Test
+	void repriceResumesInterruptedRunWithoutApplyingChunksTwice() {
+		var interrupted = repriceRunWithFirstChunkDone(MaintenanceRun.Status.INTERRUPTED, null);
+
+		var run = catalogMaintenanceService.run(CatalogMaintenanceService.Task.REPRICE, "2");
+
+		assertEquals(interrupted.getId(), run.getId());
+		assertRepricedOnce(run);
+	}
+
+	@Test
+	void repriceLeavesRunHeldByAnotherNodeAlone() {
+		var held = repriceRunWithFirstChunkDone(MaintenanceRun.Status.RUNNING, Instant.now());
+
+		assertThrows(IllegalStateException.class,
+				() -> catalogMaintenanceService.run(CatalogMaintenanceService.Task.REPRICE, "2"));
+
+		assertEquals(MaintenanceRun.Status.RUNNING, maintenanceRunRepository.findById(held.getId()).orElseThrow().getStatus());
+		assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM maintenance_chunk", Integer.class));
+	}
+
+	@Test
+	void repriceTakesOverRunOfDeadNode() {
+		// Claimed long ago, and its only chunk committed at the same time
+		var abandoned = repriceRunWithFirstChunkDone(MaintenanceRun.Status.RUNNING, Instant.now().minus(Duration.ofHours(1)));
+
+		var run = catalogMaintenanceService.run(CatalogMaintenanceService.Task.REPRICE, "2");
+
+		assertEquals(abandoned.getId(), run.getId());
+		assertRepricedOnce(run);
+	}
+
+	// A REPRICE 2 run of 4 chunks that finished its first chunk, claimed at claimedAt
+	private MaintenanceRun repriceRunWithFirstChunkDone(MaintenanceRun.Status status, Instant claimedAt) {
+		var minId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM product", Long.class);
+		var maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM product", Long.class);
+
+		var run = new MaintenanceRun();
+		run.setTask(CatalogMaintenanceService.Task.REPRICE.name());
+		run.setParameter("2");
+		run.setMinId(minId);
+		run.setMaxId(maxId);
+		run.setChunkSize(10);
+		run.setTotalChunks(4);
+		run.setStatus(status);
+		run.setRowsUpdated(10);
+		run.setStartedAt(Instant.now());
+		run.setClaimedAt(claimedAt);
+		run = maintenanceRunRepository.save(run);
+		jdbcTemplate.update("UPDATE product SET unit_price = unit_price * 2 WHERE id < ?", minId + 10);
+		jdbcTemplate.update("INSERT INTO maintenance_chunk (run_id, chunk_index, rows_updated, completed_at) "
+				+ "VALUES (?, 0, 10, ?)", run.getId(), claimedAt == null ? null : Timestamp.from(claimedAt));
+		return run;
+	}
+
+	private void assertRepricedOnce(MaintenanceRun run) {
+		assertEquals(MaintenanceRun.Status.COMPLETED, run.getStatus());
+		assertEquals(PRODUCTS, run.getRowsUpdated());
+		for (var product : productRepository.findAll()) {
+			assertEquals(0, new BigDecimal("20.00").compareTo(product.getUnnitPrice()), product.getSku());
+		}
+	}
+
+	@Test
+	void stockSyncDeactivatesProductsWithoutStock() {
+		var run = catalogMaintenanceService.run(CatalogMaintenanceService.Task.STOCK_SYNC, null);
+
+		assertEquals(MaintenanceRun.Status.COMPLETED, run.getStatus());
+		assertEquals(PRODUCTS / 5, run.getRowsUpdated());
+		for (var product : productRepository.findAll()) {
+			assertEquals(product.getUnitsInStock() > 0, product.isActive(), product.getSku());
+		}
+	}
+}
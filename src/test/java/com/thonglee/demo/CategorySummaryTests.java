@@ -0,0 +1,111 @@
+package com.thonglee.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.thonglee.demo.dao.ProductCategoryRepository;
+import com.thonglee.demo.dao.ProductRepository;
+import com.thonglee.demo.entity.CategorySummary;
+import com.thonglee.demo.entity.Product;
+import com.thonglee.demo.entity.ProductCategory;
+import com.thonglee.demo.service.CategorySummaryIndex;
+import com.thonglee.demo.service.ProductService;
+
+/**
+ * The category summary kept by ProductService writes must match a recount of the product table.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:category-summary;MODE=MariaDB;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class CategorySummaryTests {
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private CategorySummaryIndex categorySummaryIndex;
+
+	@Autowired
+	private ProductCategoryRepository productCategoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private ProductCategory books;
+	private ProductCategory games;
+
+	@BeforeEach
+	void setUp() {
+		productRepository.deleteAll();
+		books = category("Books");
+		games = category("Games");
+		categorySummaryIndex.reconcile();
+	}
+
+	@Test
+	void incrementalWritesMatchRecount() {
+		var cheap = productService.saveProduct(product("B-1", "5.00", books, true));
+		productService.saveProduct(product("B-2", "20.00", books, false));
+		var moved = productService.saveProduct(product("B-3", "12.50", books, true));
+
+		// Price change and move to the other category, then the cheapest book goes away
+		var update = product("B-3", "30.00", games, true);
+		productService.updateProduct(update, moved.getId());
+		productService.deleteProductById(cheap.getId());
+
+		assertSummary(books, 1, 0, "20.00", "20.00");
+		assertSummary(games, 1, 1, "30.00", "30.00");
+
+		var drifted = (long) categorySummaryIndex.stats().get("driftedCategories");
+		categorySummaryIndex.reconcile();
+		assertEquals(drifted, categorySummaryIndex.stats().get("driftedCategories"));
+	}
+
+	@Test
+	void reconcileFixesWritesThatBypassTheService() {
+		productService.saveProduct(product("G-1", "10.00", games, true));
+		jdbcTemplate.update("UPDATE product SET unit_price = 99.00, active = FALSE WHERE sku = 'G-1'");
+		assertSummary(games, 1, 1, "10.00", "10.00");
+
+		categorySummaryIndex.reconcile();
+
+		assertSummary(games, 1, 0, "99.00", "99.00");
+		assertTrue(categorySummaryIndex.summaries().stream().noneMatch(s -> s.categoryId().equals(books.getId())));
+	}
+
+	private void assertSummary(ProductCategory category, int products, int active, String min, String max) {
+		CategorySummary summary = categorySummaryIndex.summaries().stream()
+				.filter(s -> s.categoryId().equals(category.getId())).findFirst().orElseThrow();
+		assertEquals(products, summary.products());
+		assertEquals(active, summary.activeProducts());
+		assertEquals(0, new BigDecimal(min).compareTo(summary.minPrice()), summary.toString());
+		assertEquals(0, new BigDecimal(max).compareTo(summary.maxPrice()), summary.toString());
+	}
+
+	private ProductCategory category(String name) {
+		var category = new ProductCategory();
+		category.setCategoryName(name);
+		return productCategoryRepository.save(category);
+	}
+
+	private static Product product(String sku, String price, ProductCategory category, boolean active) {
+		var product = new Product();
+		product.setSku(sku);
+		product.setName(sku);
+		product.setUnnitPrice(new BigDecimal(price));
+		product.setActive(active);
+		product.setUnitsInStock(1);
+		product.setCategory(category);
+		return product;
+	}
+}
@@ -0,0 +1,173 @@
+package com.thonglee.demo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.h2.Driver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.SchedulerException;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.scheduling.quartz.JobDetailFactoryBean;
+import org.springframework.scheduling.quartz.SchedulerFactoryBean;
+import org.springframework.scheduling.quartz.SimpleTriggerFactoryBean;
+
+import com.thonglee.demo.config.QuartzConfig;
+
+/**
+ * Two clustered schedulers in one JVM sharing an embedded H2 job store, configured like the application
+ * with demo.quartz.clustered=true. Every fire must run on exactly one node, and both nodes must take fires.
+ */
+class ClusteredSchedulerTests {
+	private static final long CHECKIN_INTERVAL_MILLIS = 1000;
+	// Longer than the repeat interval: with one thread per node the busy node cannot take the next fire
+	private static final long JOB_MILLIS = 300;
+	private static final long REPEAT_MILLIS = 100;
+	// Fires to see before each check, and how long to wait for them on a slow build machine
+	private static final int MIN_RUNS = 5;
+	private static final long TIMEOUT_MILLIS = 30_000;
+
+	// scheduled fire time -> node that ran it
+	private static final Map<Long, String> RUNS = new ConcurrentHashMap<>();
+	private static final List<Long> DUPLICATE_RUNS = new CopyOnWriteArrayList<>();
+
+	private DataSource dataSource;
+	private SchedulerFactoryBean node1;
+	private SchedulerFactoryBean node2;
+
+	@BeforeEach
+	void createJobStore() {
+		RUNS.clear();
+		DUPLICATE_RUNS.clear();
+		dataSource = new SimpleDriverDataSource(new Driver(),
+				"jdbc:h2:mem:quartz-cluster;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000", "sa", "");
+		new ResourceDatabasePopulator(new ClassPathResource("org/quartz/impl/jdbcjobstore/tables_h2.sql"))
+				.execute(dataSource);
+	}
+
+	@AfterEach
+	void dropJobStore() throws Exception {
+		if (node1 != null) {
+			node1.destroy();
+		}
+		if (node2 != null) {
+			node2.destroy();
+		}
+		new JdbcTemplate(dataSource).execute("DROP ALL OBJECTS");
+	}
+
+	@Test
+	void firesRunOnceAcrossNodesAndSpreadOverThem() throws Exception {
+		node1 = startNode("node-1");
+		node2 = startNode("node-2");
+
+		await(() -> RUNS.size() >= MIN_RUNS && RUNS.containsValue("node-1") && RUNS.containsValue("node-2"),
+				() -> "both nodes should have run the job: " + RUNS);
+
+		assertTrue(DUPLICATE_RUNS.isEmpty(), "fires run twice: " + DUPLICATE_RUNS);
+		assertEquals(2, checkedInNodes());
+
+		// The trigger lives in the database, so the remaining node keeps firing it alone
+		node1.destroy();
+		node1 = null;
+		var runsBefore = RUNS.size();
+		await(() -> RUNS.size() >= runsBefore + MIN_RUNS, () -> "node-2 stopped firing after node-1 shut down");
+		assertTrue(DUPLICATE_RUNS.isEmpty(), "fires run twice: " + DUPLICATE_RUNS);
+	}
+
+	private SchedulerFactoryBean startNode(String instanceId) throws Exception {
+		var properties = QuartzConfig.quartzProperties(1, true, CHECKIN_INTERVAL_MILLIS);
+		properties.put("org.quartz.scheduler.instanceId", instanceId);
+		// A node that found the trigger held by the other one idles this long (default 30 s) before looking again
+		properties.put("org.quartz.scheduler.idleWaitTime", "1000");
+
+		// Registered at startup on every node like QuartzConfig does. The second node overwrites jobs whose
+		// triggers are already stored, the JDBC store only accepts that for durable jobs
+		var recordingJob = new JobDetailFactoryBean();
+		recordingJob.setJobClass(RecordingJob.class);
+		recordingJob.setName("recordingJob");
+		recordingJob.setGroup("test");
+		recordingJob.setDurability(true);
+		recordingJob.afterPropertiesSet();
+
+		var recordingTrigger = new SimpleTriggerFactoryBean();
+		recordingTrigger.setJobDetail(recordingJob.getObject());
+		recordingTrigger.setRepeatInterval(REPEAT_MILLIS);
+		recordingTrigger.setName("recordingTrigger");
+		recordingTrigger.setGroup("test");
+		recordingTrigger.afterPropertiesSet();
+
+		var onDemandJob = new JobDetailFactoryBean();
+		onDemandJob.setJobClass(RecordingJob.class);
+		onDemandJob.setName("onDemandJob");
+		onDemandJob.setGroup("test");
+		onDemandJob.setDurability(true);
+		onDemandJob.afterPropertiesSet();
+
+		var node = new SchedulerFactoryBean();
+		node.setDataSource(dataSource);
+		node.setQuartzProperties(properties);
+		node.setOverwriteExistingJobs(true);
+		node.setTransactionManager(new DataSourceTransactionManager(dataSource));
+		// destroy() lets a running job finish its store update instead of failing on a closed job store
+		node.setWaitForJobsToCompleteOnShutdown(true);
+		node.setJobDetails(onDemandJob.getObject());
+		node.setTriggers(recordingTrigger.getObject());
+		node.afterPropertiesSet();
+		node.start();
+		return node;
+	}
+
+	// Polls instead of sleeping a fixed time: returns as soon as the condition holds
+	private static void await(BooleanSupplier condition, Supplier<String> message) throws InterruptedException {
+		var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+		while (!condition.getAsBoolean()) {
+			if (System.nanoTime() - deadline > 0) {
+				fail("Timed out after " + TIMEOUT_MILLIS + " ms, " + message.get());
+			}
+			Thread.sleep(REPEAT_MILLIS / 2);
+		}
+	}
+
+	private int checkedInNodes() {
+		return new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM " + QuartzConfig.TABLE_PREFIX
+				+ "SCHEDULER_STATE WHERE SCHED_NAME = ?", Integer.class, QuartzConfig.SCHEDULER_NAME);
+	}
+
+	public static class RecordingJob implements Job {
+		@Override
+		public void execute(JobExecutionContext context) throws JobExecutionException {
+			try {
+				var node = context.getScheduler().getSchedulerInstanceId();
+				var fireTime = context.getScheduledFireTime().getTime();
+				if (RUNS.putIfAbsent(fireTime, node) != null) {
+					DUPLICATE_RUNS.add(fireTime);
+				}
+				Thread.sleep(JOB_MILLIS);
+			} catch (SchedulerException e) {
+				throw new JobExecutionException(e);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package com.thonglee.demo;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.thonglee.demo.dao.CountryRepository;
+import com.thonglee.demo.dao.ProductCategoryRepository;
+import com.thonglee.demo.dao.ProductRepository;
+import com.thonglee.demo.dao.StateRepository;
+import com.thonglee.demo.entity.Country;
+import com.thonglee.demo.entity.Product;
+import com.thonglee.demo.entity.ProductCategory;
+import com.thonglee.demo.entity.State;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Statement budgets of the /my-api/read endpoints. With several categories and countries in the data,
+ * any per-row lazy load pushes the count over the limit.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReadEndpointQueryCountTests {
+	private static final int CATEGORIES = 4;
+	private static final int PRODUCTS_PER_CATEGORY = 5;
+	private static final int COUNTRIES = 3;
+	private static final int STATES_PER_COUNTRY = 4;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private ProductCategoryRepository productCategoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private CountryRepository countryRepository;
+
+	@Autowired
+	private StateRepository stateRepository;
+
+	private SqlStatementGuard guard;
+
+	@BeforeAll
+	void setUp() {
+		guard = new SqlStatementGuard(entityManagerFactory);
+		for (int c = 1; c <= CATEGORIES; c++) {
+			var category = new ProductCategory();
+			category.setCategoryName("Category " + c);
+			category = productCategoryRepository.save(category);
+			for (int p = 1; p <= PRODUCTS_PER_CATEGORY; p++) {
+				var product = new Product();
+				product.setSku("SKU-" + c + "-" + p);
+				product.setName("Product " + c + "-" + p);
+				product.setUnnitPrice(BigDecimal.TEN);
+				product.setActive(true);
+				product.setUnitsInStock(10);
+				product.setCategory(category);
+				productRepository.save(product);
+			}
+		}
+		for (int c = 1; c <= COUNTRIES; c++) {
+			var country = new Country();
+			country.setCode("C" + c);
+			country.setName("Country " + c);
+			country = countryRepository.save(country);
+			for (int s = 1; s <= STATES_PER_COUNTRY; s++) {
+				var state = new State();
+				state.setName("State " + c + "-" + s);
+				state.setCountry(country);
+				stateRepository.save(state);
+			}
+		}
+		// The second-level cache would hide lazy loads, measure the database path
+		entityManagerFactory.getCache().evictAll();
+	}
+
+	@Test
+	void productsPageUsesOneSelectPlusCount() throws Exception {
+		guard.assertAtMost(2, "GET /my-api/read/products", () -> mockMvc
+				.perform(get("/my-api/read/products").param("size", "50"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()").value(CATEGORIES * PRODUCTS_PER_CATEGORY)));
+	}
+
+	@Test
+	void countriesWithStatesUseOneSelect() throws Exception {
+		entityManagerFactory.getCache().evictAll();
+		guard.assertAtMost(1, "GET /my-api/read/countries", () -> mockMvc
+				.perform(get("/my-api/read/countries"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(COUNTRIES))
+				.andExpect(jsonPath("$[0].states.length()").value(STATES_PER_COUNTRY)));
+	}
+}
@@ -0,0 +1,33 @@
+package com.thonglee.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Asserts how many SQL statements Hibernate prepares while a block runs, so an N+1 shows up as a failing test.
+ * Needs hibernate.generate_statistics=true (see application-test.properties).
+ */
+public class SqlStatementGuard {
+	@FunctionalInterface
+	public interface Block {
+		void run() throws Exception;
+	}
+
+	private final Statistics _statistics;
+
+	public SqlStatementGuard(EntityManagerFactory entityManagerFactory) {
+		_statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	public void assertAtMost(int maxStatements, String description, Block block) throws Exception {
+		_statistics.clear();
+		block.run();
+		assertThat(_statistics.getPrepareStatementCount())
+				.as("SQL statements for %s", description)
+				.isLessThanOrEqualTo(maxStatements);
+	}
+}